@@ -0,0 +1,61 @@
+package com.jgb.loadgenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+// a fixed number of workers, each sending its next request as soon as the last one
+// returns. Throughput follows the server, so a stall also stops the generator. If an
+// expected interval is given, each recorded latency is back filled with the requests
+// that would have been sent during the stall (HdrHistogram's expected interval correction)
+public class ClosedLoopRunner implements Runner {
+    private HttpTarget target;
+    private Scenario scenario;
+    private int concurrency;
+    private long expectedIntervalNanos;
+
+    public ClosedLoopRunner(HttpTarget target, Scenario scenario, int concurrency, long expectedIntervalNanos) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be greater than zero");
+        }
+        this.target = target;
+        this.scenario = scenario;
+        this.concurrency = concurrency;
+        this.expectedIntervalNanos = expectedIntervalNanos;
+    }
+
+    @Override
+    public void run(long durationNanos, Results results) throws InterruptedException {
+        long end = System.nanoTime() + durationNanos;
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(() -> loop(end, results), "load-worker-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void loop(long end, Results results) {
+        Random random = ThreadLocalRandom.current();
+        while (System.nanoTime() - end < 0) {
+            long start = System.nanoTime();
+            try {
+                HttpTarget.Response response = target.send(scenario.nextRequest(random));
+                long latency = System.nanoTime() - start;
+                if (!response.isSuccess()) {
+                    results.recordError(latency);
+                } else if (expectedIntervalNanos > 0) {
+                    results.recordSuccess(latency, expectedIntervalNanos, response.getBody());
+                } else {
+                    results.recordSuccess(latency, response.getBody());
+                }
+            } catch (Exception e) {
+                results.recordError(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.jgb.loadgenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+// sends requests with HttpURLConnection, which keeps connections alive between requests
+public class HttpTarget {
+    private String baseUrl;
+
+    public HttpTarget(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public Response send(Request request) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + request.getPath()).openConnection();
+        connection.setRequestMethod(request.getMethod());
+        connection.setConnectTimeout(10000);
+        connection.setReadTimeout(60000);
+        if (request.getBody() != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(request.getBody().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        return new Response(status, in == null ? "" : readFully(in));
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    public static class Response {
+        private int status;
+        private String body;
+
+        public Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+    }
+}
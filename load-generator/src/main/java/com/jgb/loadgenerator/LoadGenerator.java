@@ -0,0 +1,137 @@
+package com.jgb.loadgenerator;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+// command line entry point. Options are --name=value, for example:
+//
+//   java -jar load-generator-1.0.jar --url=http://localhost:8080 --scenario=payment --mode=open --rate=500 --duration=60
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(2);
+            return;
+        }
+
+        if (options.containsKey("help")) {
+            usage();
+            return;
+        }
+
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        String mode = options.getOrDefault("mode", "open");
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "30")));
+        Scenario scenario = scenario(options.getOrDefault("scenario", "payment"),
+                Integer.parseInt(options.getOrDefault("batch-size", "100")));
+        HttpTarget target = new HttpTarget(url);
+
+        Runner runner;
+        if ("open".equals(mode)) {
+            runner = new OpenLoopRunner(target, scenario,
+                    Double.parseDouble(options.getOrDefault("rate", "100")),
+                    Integer.parseInt(options.getOrDefault("max-connections", "200")));
+        } else if ("closed".equals(mode)) {
+            runner = new ClosedLoopRunner(target, scenario,
+                    Integer.parseInt(options.getOrDefault("concurrency", "10")),
+                    TimeUnit.MICROSECONDS.toNanos(Long.parseLong(options.getOrDefault("expected-interval-micros", "0"))));
+        } else {
+            throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+
+        Results results = new Results();
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "load-progress");
+            t.setDaemon(true);
+            return t;
+        });
+        progress.scheduleAtFixedRate(() -> progress(results), 1, 1, TimeUnit.SECONDS);
+
+        System.out.printf("%s loop, scenario %s against %s for %d s%n", mode, options.getOrDefault("scenario", "payment"),
+                url, TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+        long start = System.nanoTime();
+        runner.run(durationNanos, results);
+        long elapsed = System.nanoTime() - start;
+        progress.shutdownNow();
+
+        results.report(System.out, elapsed);
+
+        String output = options.get("hgrm");
+        if (output != null) {
+            writePercentiles(results.total(), output);
+        }
+    }
+
+    static Scenario scenario(String name, int batchSize) {
+        switch (name) {
+        case "payment":
+            return new PaymentScenario();
+        case "user":
+            return new UserScenario();
+        case "userBatch":
+            return new UserBatchScenario(batchSize);
+        default:
+            throw new IllegalArgumentException("Unknown scenario: " + name);
+        }
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals == -1) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+
+    private static void progress(Results results) {
+        Histogram interval = results.interval();
+        System.out.printf("%8d req  p50 %8.3f ms  p99 %8.3f ms  max %8.3f ms  errors %d%n",
+                interval.getTotalCount(),
+                interval.getValueAtPercentile(50.0) / 1000.0,
+                interval.getValueAtPercentile(99.0) / 1000.0,
+                interval.getMaxValue() / 1000.0,
+                results.getErrors());
+    }
+
+    // writes the full percentile distribution in the format read by HdrHistogram's plotter
+    private static void writePercentiles(Histogram histogram, String file) throws FileNotFoundException {
+        try (PrintStream out = new PrintStream(file)) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+        System.out.println("Percentile distribution written to " + file);
+    }
+
+    private static void usage() {
+        System.out.println("Options:");
+        System.out.println("  --url=http://localhost:8080      base url of the app under test");
+        System.out.println("  --scenario=payment|user|userBatch");
+        System.out.println("  --batch-size=100                 users per request for userBatch");
+        System.out.println("  --mode=open|closed               fixed arrival rate, or fixed number of workers");
+        System.out.println("  --rate=100                       open loop: requests per second");
+        System.out.println("  --max-connections=200            open loop: maximum requests in flight");
+        System.out.println("  --concurrency=10                 closed loop: number of workers");
+        System.out.println("  --expected-interval-micros=0     closed loop: correct for stalls longer than this");
+        System.out.println("  --duration=30                    seconds to run");
+        System.out.println("  --hgrm=latency.hgrm              write the percentile distribution to a file");
+    }
+}
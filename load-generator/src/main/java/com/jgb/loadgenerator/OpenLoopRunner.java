@@ -0,0 +1,70 @@
+package com.jgb.loadgenerator;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// sends requests at a fixed arrival rate no matter how fast the server answers.
+// Latency is measured from the time the request was scheduled to go out, not the
+// time it actually went out, so queueing in the generator (a slow server holding
+// all the workers) shows up in the results instead of being hidden - this is the
+// coordinated omission correction
+public class OpenLoopRunner implements Runner {
+    private HttpTarget target;
+    private Scenario scenario;
+    private double ratePerSecond;
+    private int maxConnections;
+
+    public OpenLoopRunner(HttpTarget target, Scenario scenario, double ratePerSecond, int maxConnections) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("rate must be greater than zero");
+        }
+        this.target = target;
+        this.scenario = scenario;
+        this.ratePerSecond = ratePerSecond;
+        this.maxConnections = maxConnections;
+    }
+
+    @Override
+    public void run(long durationNanos, Results results) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(maxConnections);
+        long intervalNanos = (long) (1e9 / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+
+        try {
+            for (long n = 0;; n++) {
+                long intended = start + n * intervalNanos;
+                if (intended - end >= 0) {
+                    break;
+                }
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                workers.execute(() -> send(intended, results));
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private void send(long intendedStart, Results results) {
+        Random random = ThreadLocalRandom.current();
+        try {
+            HttpTarget.Response response = target.send(scenario.nextRequest(random));
+            long latency = System.nanoTime() - intendedStart;
+            if (response.isSuccess()) {
+                results.recordSuccess(latency, response.getBody());
+            } else {
+                results.recordError(latency);
+            }
+        } catch (Exception e) {
+            results.recordError(System.nanoTime() - intendedStart);
+        }
+    }
+}
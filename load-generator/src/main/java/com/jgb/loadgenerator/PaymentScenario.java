@@ -0,0 +1,17 @@
+package com.jgb.loadgenerator;
+
+import java.util.Random;
+
+// same distribution as loan-calculator-client/app.js
+public class PaymentScenario implements Scenario {
+
+    @Override
+    public Request nextRequest(Random random) {
+        int rate = random.nextInt(7); // random integer 0..6
+        double amount = 100000.0 + random.nextDouble() * 700000.0; // random between 100,000.00 and 700,000.00
+        amount = Math.floor(amount * 100.0) / 100.0; // force 2 decimal digits
+        int years = 30;
+
+        return Request.get("/payment?amount=" + amount + "&rate=" + rate + "&years=" + years);
+    }
+}
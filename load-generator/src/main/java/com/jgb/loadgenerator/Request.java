@@ -0,0 +1,33 @@
+package com.jgb.loadgenerator;
+
+public class Request {
+    private String method;
+    private String path;
+    private String body;
+
+    private Request(String method, String path, String body) {
+        this.method = method;
+        this.path = path;
+        this.body = body;
+    }
+
+    public static Request get(String path) {
+        return new Request("GET", path, null);
+    }
+
+    public static Request post(String path, String body) {
+        return new Request("POST", path, body);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getBody() {
+        return body;
+    }
+}
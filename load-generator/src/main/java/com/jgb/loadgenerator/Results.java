@@ -0,0 +1,121 @@
+package com.jgb.loadgenerator;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+// collects latencies (in microseconds), errors, and the spread of responses across app instances
+public class Results {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final String UNKNOWN_INSTANCE = "unknown";
+
+    private Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private Histogram accumulated = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private LongAdder completed = new LongAdder();
+    private LongAdder errors = new LongAdder();
+    private Map<String, LongAdder> instances = new ConcurrentHashMap<>();
+
+    public void recordSuccess(long latencyNanos, String responseBody) {
+        recorder.recordValue(toMicros(latencyNanos));
+        completed.increment();
+        instances.computeIfAbsent(instanceOf(responseBody), k -> new LongAdder()).increment();
+    }
+
+    // closed loop correction - back fills the requests that would have been sent
+    // during a stall if the generator had kept to the expected interval
+    public void recordSuccess(long latencyNanos, long expectedIntervalNanos, String responseBody) {
+        recorder.recordValueWithExpectedInterval(toMicros(latencyNanos), toMicros(expectedIntervalNanos));
+        completed.increment();
+        instances.computeIfAbsent(instanceOf(responseBody), k -> new LongAdder()).increment();
+    }
+
+    public void recordError(long latencyNanos) {
+        recorder.recordValue(toMicros(latencyNanos));
+        completed.increment();
+        errors.increment();
+    }
+
+    // returns the latencies recorded since the last call, and adds them to the run total
+    public synchronized Histogram interval() {
+        Histogram interval = recorder.getIntervalHistogram();
+        accumulated.add(interval);
+        return interval;
+    }
+
+    public synchronized Histogram total() {
+        accumulated.add(recorder.getIntervalHistogram());
+        return accumulated;
+    }
+
+    // requests actually sent - the histogram count also includes back filled values
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public Map<String, Long> getInstances() {
+        Map<String, Long> counts = new TreeMap<>();
+        instances.forEach((k, v) -> counts.put(k, v.sum()));
+        return counts;
+    }
+
+    public void report(PrintStream out, long elapsedNanos) {
+        Histogram histogram = total();
+        double seconds = elapsedNanos / 1e9;
+        long requests = getCompleted();
+
+        out.println();
+        out.printf("Requests:   %d (%d errors)%n", requests, getErrors());
+        out.printf("Throughput: %.1f req/s%n", requests / seconds);
+        out.println("Latency (ms):");
+        for (double percentile : new double[] {50.0, 90.0, 99.0, 99.9, 99.99}) {
+            out.printf("  p%-6s %10.3f%n", trim(percentile), histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        out.printf("  %-7s %10.3f%n", "max", histogram.getMaxValue() / 1000.0);
+
+        Map<String, Long> counts = getInstances();
+        if (!counts.isEmpty()) {
+            long total = counts.values().stream().mapToLong(Long::longValue).sum();
+            out.println("Instances:");
+            counts.forEach((instance, count) ->
+                out.printf("  %-8s %10d (%5.1f%%)%n", instance, count, count * 100.0 / total));
+        }
+    }
+
+    // pulls the "instance" field out of a ReturnValue without a full JSON parse
+    static String instanceOf(String body) {
+        int field = body.indexOf("\"instance\":");
+        if (field == -1) {
+            return UNKNOWN_INSTANCE;
+        }
+        int start = field + "\"instance\":".length();
+        while (start < body.length() && body.charAt(start) == ' ') {
+            start++;
+        }
+        if (body.startsWith("null", start)) {
+            return UNKNOWN_INSTANCE;
+        }
+        if (start < body.length() && body.charAt(start) == '"') {
+            int end = body.indexOf('"', start + 1);
+            return end == -1 ? UNKNOWN_INSTANCE : body.substring(start + 1, end);
+        }
+        return UNKNOWN_INSTANCE;
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(Math.max(nanos / 1000L, 1L), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    private static String trim(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,5 @@
+package com.jgb.loadgenerator;
+
+public interface Runner {
+    void run(long durationNanos, Results results) throws InterruptedException;
+}
@@ -0,0 +1,8 @@
+package com.jgb.loadgenerator;
+
+import java.util.Random;
+
+// builds the next request to send - one implementation for each endpoint under test
+public interface Scenario {
+    Request nextRequest(Random random);
+}
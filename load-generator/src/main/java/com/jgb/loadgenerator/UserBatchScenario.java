@@ -0,0 +1,25 @@
+package com.jgb.loadgenerator;
+
+import java.util.Random;
+
+// inserts a batch of random users with POST /userBatch
+public class UserBatchScenario implements Scenario {
+    private int batchSize;
+
+    public UserBatchScenario(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Request nextRequest(Random random) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < batchSize; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(UserScenario.randomUser(random));
+        }
+        sb.append(']');
+        return Request.post("/userBatch", sb.toString());
+    }
+}
@@ -0,0 +1,17 @@
+package com.jgb.loadgenerator;
+
+import java.util.Random;
+
+// inserts one random user with POST /user
+public class UserScenario implements Scenario {
+
+    @Override
+    public Request nextRequest(Random random) {
+        return Request.post("/user", randomUser(random));
+    }
+
+    static String randomUser(Random random) {
+        return "{\"firstName\":\"First" + random.nextInt(100000)
+                + "\",\"lastName\":\"Last" + random.nextInt(100000) + "\"}";
+    }
+}
@@ -0,0 +1,71 @@
+package com.jgb.loadgenerator;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+public class LoadGeneratorTest {
+
+    @Test
+    public void testPaymentScenarioMatchesClientDistribution() {
+        Random random = new Random(42);
+        PaymentScenario scenario = new PaymentScenario();
+        for (int i = 0; i < 1000; i++) {
+            Request request = scenario.nextRequest(random);
+            assertThat(request.getMethod(), is("GET"));
+            String[] params = request.getPath().substring("/payment?".length()).split("&");
+            double amount = Double.parseDouble(params[0].substring("amount=".length()));
+            int rate = Integer.parseInt(params[1].substring("rate=".length()));
+            assertThat(amount, is(both(greaterThanOrEqualTo(100000.0)).and(lessThan(800000.0))));
+            String decimals = params[0].substring(params[0].indexOf('.') + 1);
+            assertThat(decimals.length(), is(lessThanOrEqualTo(2)));
+            assertThat(rate, is(both(greaterThanOrEqualTo(0)).and(lessThanOrEqualTo(6))));
+            assertThat(params[2], is("years=30"));
+        }
+    }
+
+    @Test
+    public void testUserBatchScenario() {
+        Request request = new UserBatchScenario(3).nextRequest(new Random(1));
+        assertThat(request.getMethod(), is("POST"));
+        assertThat(request.getPath(), is("/userBatch"));
+        assertThat(request.getBody().split("\"firstName\"").length, is(4));
+    }
+
+    @Test
+    public void testInstanceParsing() {
+        assertThat(Results.instanceOf("{\"payment\":1.00,\"instance\":\"2\",\"count\":5}"), is("2"));
+        assertThat(Results.instanceOf("{\"payment\":1.00,\"instance\": \"0\"}"), is("0"));
+        assertThat(Results.instanceOf("{\"payment\":1.00,\"instance\":null,\"count\":5}"), is("unknown"));
+        assertThat(Results.instanceOf("{\"id\":1}"), is("unknown"));
+    }
+
+    @Test
+    public void testExpectedIntervalCorrection() {
+        Results results = new Results();
+        // one 100ms stall with a 10ms expected interval back fills the 9 requests that were never sent
+        results.recordSuccess(TimeUnit.MILLISECONDS.toNanos(100), TimeUnit.MILLISECONDS.toNanos(10), "{\"instance\":\"1\"}");
+        Histogram histogram = results.total();
+        assertThat(histogram.getTotalCount(), is(10L));
+        assertThat(results.getCompleted(), is(1L));
+        assertThat(results.getInstances().get("1"), is(1L));
+    }
+
+    @Test
+    public void testParse() {
+        Map<String, String> options = LoadGenerator.parse(new String[] {"--rate=50", "--help"});
+        assertThat(options.get("rate"), is("50"));
+        assertThat(options.get("help"), is("true"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownScenario() {
+        LoadGenerator.scenario("nope", 1);
+    }
+}
@@ -1,14 +1,33 @@
 package com.jgb.loancalculator;
 
+import java.time.Duration;
+
+import com.jgb.loancalculator.http.InstanceIndex;
 import com.jgb.loancalculator.service.CounterService;
 import com.jgb.loancalculator.service.CounterServiceRedis;
+import com.jgb.loancalculator.service.CounterServiceRedisBlock;
+import com.jgb.loancalculator.service.CounterServiceRedisBreaker;
+import com.jgb.loancalculator.service.CounterServiceRedisSharded;
+import com.jgb.loancalculator.service.ReactiveCounterService;
+import com.jgb.loancalculator.service.ReactiveCounterServiceRedis;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @Profile("cloud")
@@ -23,7 +42,66 @@ public class CloudConfig {
     }
     
     @Bean
+    @ConditionalOnProperty(name="loan-calculator.redis-counter.mode", havingValue="single", matchIfMissing=true)
     public CounterService counterService() {
         return new CounterServiceRedis();
     }
+
+    @Bean
+    @ConditionalOnProperty(name="loan-calculator.redis-counter.mode", havingValue="block")
+    public CounterService blockCounterService(RedisTemplate<String, Integer> redisTemplate,
+            @Value("${loan-calculator.redis-counter.min-block-size:10}") long minBlockSize,
+            @Value("${loan-calculator.redis-counter.max-block-size:10000}") long maxBlockSize,
+            @Value("${loan-calculator.redis-counter.target-block-millis:1000}") long targetBlockMillis) {
+        return new CounterServiceRedisBlock(redisTemplate, minBlockSize, maxBlockSize, targetBlockMillis);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name="loan-calculator.redis-counter.mode", havingValue="breaker")
+    public CounterService breakerCounterService(RedisTemplate<String, Integer> redisTemplate,
+            @Value("${loan-calculator.redis-counter.slow-call-millis:50}") long slowCallMillis,
+            @Value("${loan-calculator.redis-counter.failure-threshold:3}") int failureThreshold,
+            @Value("${loan-calculator.redis-counter.open-millis:5000}") long openMillis) {
+        return new CounterServiceRedisBreaker(redisTemplate, slowCallMillis, failureThreshold, openMillis);
+    }
+
+    // the breaker calls Redis on the request thread, so the Lettuce command timeout is what
+    // bounds the wait. Applies to the connection factory Spring Boot creates
+    @Bean
+    @ConditionalOnProperty(name="loan-calculator.redis-counter.mode", havingValue="breaker")
+    public LettuceClientConfigurationBuilderCustomizer breakerCommandTimeout(
+            @Value("${loan-calculator.redis-counter.slow-call-millis:50}") long slowCallMillis) {
+        return builder -> builder.commandTimeout(Duration.ofMillis(slowCallMillis));
+    }
+
+    // the total gauge is bound here because the SlowCounterService wrapper hides the MeterBinder from Boot
+    @Bean
+    @ConditionalOnProperty(name="loan-calculator.redis-counter.mode", havingValue="sharded")
+    public CounterService shardedCounterService(RedisTemplate<String, Integer> redisTemplate, MeterRegistry meterRegistry,
+            @Value("${loan-calculator.redis-counter.refresh-millis:1000}") long refreshMillis) {
+        CounterServiceRedisSharded counterService = new CounterServiceRedisSharded(redisTemplate, InstanceIndex.VALUE, refreshMillis);
+        counterService.bindTo(meterRegistry);
+        return counterService;
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type=Type.REACTIVE)
+    public ReactiveRedisTemplate<String, Integer> reactiveRedisTemplate(ReactiveRedisConnectionFactory redisFactory) {
+        RedisSerializationContext<String, Integer> serializationContext = RedisSerializationContext
+                .<String, Integer>newSerializationContext(new StringRedisSerializer())
+                .value(new GenericToStringSerializer<>(Integer.class))
+                .build();
+        return new ReactiveRedisTemplate<>(redisFactory, serializationContext);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type=Type.REACTIVE)
+    public ReactiveCounterService reactiveCounterService(@Value("${loan-calculator.redis-counter.mode:single}") String mode) {
+        // the reactive counter is always one INCR per request - the other modes are blocking
+        // counters, so fail rather than silently ignore them
+        if (!"single".equals(mode)) {
+            throw new IllegalStateException("loan-calculator.redis-counter.mode=" + mode + " is not supported with the reactive profile");
+        }
+        return new ReactiveCounterServiceRedis();
+    }
 }
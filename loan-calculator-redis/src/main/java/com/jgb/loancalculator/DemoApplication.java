@@ -1,14 +1,38 @@
 package com.jgb.loancalculator;
 
+import java.nio.file.Paths;
+import java.util.List;
+
+import com.jgb.loancalculator.http.InstanceIndex;
+import com.jgb.loancalculator.http.PaymentRecordHttpMessageConverter;
+import com.jgb.loancalculator.http.PaymentStageMetrics;
+import com.jgb.loancalculator.http.ReturnValueHttpMessageConverter;
+import com.jgb.loancalculator.service.AnnuityFactorCache;
+import com.jgb.loancalculator.service.CachingPaymentCalculator;
 import com.jgb.loancalculator.service.CounterService;
 import com.jgb.loancalculator.service.CounterServiceInMemory;
+import com.jgb.loancalculator.service.CounterServiceMappedFile;
 import com.jgb.loancalculator.service.Crasher;
 import com.jgb.loancalculator.service.PaymentCalculator;
+import com.jgb.loancalculator.service.ReactiveCounterService;
+import com.jgb.loancalculator.service.ReactiveCounterServiceInMemory;
+import com.jgb.loancalculator.service.SlowCounterService;
+import com.jgb.loancalculator.service.SlowReactiveCounterService;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @SpringBootApplication
 public class DemoApplication {
@@ -18,18 +42,96 @@ public class DemoApplication {
     }
     
     @Bean
-    public PaymentCalculator paymentCalulator() {
-        return new PaymentCalculator();
+    public AnnuityFactorCache annuityFactorCache(@Value("${loan-calculator.annuity-factor-cache.maximum-size:1024}") long maximumSize) {
+        return new AnnuityFactorCache(maximumSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name="loan-calculator.payment-cache.enabled", havingValue="false", matchIfMissing=true)
+    public PaymentCalculator paymentCalulator(AnnuityFactorCache annuityFactorCache) {
+        return new PaymentCalculator(annuityFactorCache);
+    }
+
+    // declared as CachingPaymentCalculator so that Boot sees the MeterBinder when it binds meters
+    @Bean
+    @ConditionalOnProperty(name="loan-calculator.payment-cache.enabled", havingValue="true")
+    public CachingPaymentCalculator cachingPaymentCalulator(AnnuityFactorCache annuityFactorCache,
+            @Value("${loan-calculator.payment-cache.maximum-size:10000}") long maximumSize,
+            @Value("${loan-calculator.payment-cache.expire-after-write-seconds:300}") long expireAfterWriteSeconds) {
+        return new CachingPaymentCalculator(annuityFactorCache, maximumSize, expireAfterWriteSeconds);
     }
     
+    @Bean
+    public PaymentStageMetrics paymentStageMetrics(MeterRegistry meterRegistry) {
+        return new PaymentStageMetrics(meterRegistry);
+    }
+
+    // Spring Boot puts converter beans ahead of the default Jackson converter
+    @Bean
+    public ReturnValueHttpMessageConverter returnValueHttpMessageConverter(PaymentStageMetrics paymentStageMetrics) {
+        return new ReturnValueHttpMessageConverter(InstanceIndex.VALUE, paymentStageMetrics);
+    }
+
+    // converter beans go to the front of the list, so the binary converter is added to the end
+    // instead - JSON is still chosen for "Accept: */*" and requests without an Accept header
+    @Bean
+    @ConditionalOnWebApplication(type=Type.SERVLET)
+    public WebMvcConfigurer paymentRecordConfigurer(PaymentStageMetrics paymentStageMetrics) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.add(new PaymentRecordHttpMessageConverter(InstanceIndex.VALUE, paymentStageMetrics));
+            }
+        };
+    }
+
     @Bean
     public Crasher crasher() {
         return new Crasher();
     }
 
+    // lets Crasher slow down the hit counter, whichever CounterService or ReactiveCounterService is in use
+    @Bean
+    public static BeanPostProcessor slowCounterServicePostProcessor(ObjectProvider<Crasher> crasher) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CounterService) {
+                    return new SlowCounterService((CounterService) bean, crasher.getObject());
+                }
+                if (bean instanceof ReactiveCounterService) {
+                    return new SlowReactiveCounterService((ReactiveCounterService) bean, crasher.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
     @Bean
     @Profile("!cloud")
+    @ConditionalOnProperty(name="loan-calculator.counter-file.enabled", havingValue="false", matchIfMissing=true)
     public CounterService counterService() {
         return new CounterServiceInMemory();
     }
+
+    @Bean
+    @Profile("!cloud")
+    @ConditionalOnProperty(name="loan-calculator.counter-file.enabled", havingValue="true")
+    public CounterService mappedFileCounterService(@Value("${loan-calculator.counter-file.path:loan-calculator-count.dat}") String path,
+            @Value("${loan-calculator.counter-file.flush-millis:100}") long flushMillis) {
+        return new CounterServiceMappedFile(Paths.get(path), flushMillis);
+    }
+
+    @Bean
+    @Profile("!cloud")
+    @ConditionalOnWebApplication(type=Type.REACTIVE)
+    public ReactiveCounterService reactiveCounterService(@Value("${loan-calculator.counter-file.enabled:false}") boolean counterFile) {
+        // its own counter rather than the CounterService bean, so that a counter delay from
+        // Crasher is applied once, without blocking the event loop. That also means the counter
+        // file would be ignored, so fail rather than silently lose the count on restart
+        if (counterFile) {
+            throw new IllegalStateException("loan-calculator.counter-file.enabled=true is not supported with the reactive profile");
+        }
+        return new ReactiveCounterServiceInMemory(new CounterServiceInMemory());
+    }
 }
@@ -1,5 +1,7 @@
 package com.jgb.loancalculator;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Controller;
@@ -15,6 +17,7 @@ import springfox.documentation.swagger2.annotations.EnableSwagger2;
 @Configuration
 @EnableSwagger2
 @Controller
+@ConditionalOnWebApplication(type=Type.SERVLET)
 public class SwaggerConfiguration {
 
     @RequestMapping("/")
@@ -0,0 +1,47 @@
+package com.jgb.loancalculator.http;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+
+public class BatchReturnValue {
+    private double[] payments;
+    private String instance;
+    private Long count;
+
+    private BatchReturnValue(Builder builder) {
+        this.payments = builder.payments;
+        this.count = builder.count;
+        this.instance = InstanceIndex.VALUE;
+    }
+
+    public double[] getPayments() {
+        return payments;
+    }
+
+    public String getInstance() {
+        return instance;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    @JsonIgnoreType
+    public static class Builder {
+        private double[] payments;
+        private Long count;
+
+        public Builder withPayments(double[] payments) {
+            this.payments = payments;
+            return this;
+        }
+
+        public Builder withCount(Long count) {
+            this.count = count;
+            return this;
+        }
+
+        public BatchReturnValue build() {
+            return new BatchReturnValue(this);
+        }
+    }
+}
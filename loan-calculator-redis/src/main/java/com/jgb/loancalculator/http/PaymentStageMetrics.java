@@ -0,0 +1,67 @@
+package com.jgb.loancalculator.http;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Times the stages of a /payment request - the calculation, the counter increment, and writing
+// the response. Each stage is a "payment.stage" timer with a percentile histogram, and the same
+// durations are reported to the caller in Server-Timing headers
+public class PaymentStageMetrics {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final Timer calculation;
+    private final Timer counter;
+    private final Timer serialization;
+
+    public PaymentStageMetrics(MeterRegistry registry) {
+        calculation = timer(registry, "calculate");
+        counter = timer(registry, "counter");
+        serialization = timer(registry, "serialize");
+    }
+
+    // records both stages and returns the Server-Timing header value for them
+    public String recordRequest(long calculationNanos, long counterNanos) {
+        calculation.record(calculationNanos, TimeUnit.NANOSECONDS);
+        counter.record(counterNanos, TimeUnit.NANOSECONDS);
+
+        StringBuilder sb = new StringBuilder(48);
+        appendTiming(sb, "calculate", calculationNanos);
+        sb.append(", ");
+        appendTiming(sb, "counter", counterNanos);
+        return sb.toString();
+    }
+
+    // records serialization and returns the Server-Timing header value for it
+    public String recordSerialization(long serializationNanos) {
+        serialization.record(serializationNanos, TimeUnit.NANOSECONDS);
+
+        StringBuilder sb = new StringBuilder(24);
+        appendTiming(sb, "serialize", serializationNanos);
+        return sb.toString();
+    }
+
+    // Server-Timing durations are milliseconds - written with microsecond precision
+    private static void appendTiming(StringBuilder sb, String name, long nanos) {
+        long micros = nanos / 1000;
+        long fraction = micros % 1000;
+        sb.append(name).append(";dur=").append(micros / 1000).append('.');
+        if (fraction < 100) {
+            sb.append('0');
+        }
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+
+    private static Timer timer(MeterRegistry registry, String stage) {
+        return Timer.builder("payment.stage")
+                .tag("stage", stage)
+                .description("Time spent in each stage of a /payment request")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,73 @@
+package com.jgb.loancalculator.http;
+
+import java.time.Duration;
+
+import com.jgb.loancalculator.service.Crasher;
+import com.jgb.loancalculator.service.PaymentCalculator;
+import com.jgb.loancalculator.service.ReactiveCounterService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Mono;
+
+// WebFlux version of PaymentController and ResetCountController, used with the "reactive" profile.
+// The counter increment runs asynchronously so no event loop thread waits on Redis
+@RestController
+@ConditionalOnWebApplication(type=Type.REACTIVE)
+public class ReactivePaymentController {
+
+    @Autowired
+    private ReactiveCounterService counterService;
+
+    @Autowired
+    private PaymentCalculator paymentCalculator;
+
+    @Autowired
+    private Crasher crasher;
+
+    @CrossOrigin(origins="*")
+    @GetMapping("/payment")
+    public Mono<ReturnValue> calculatePayment(@RequestParam("amount") double amount,
+            @RequestParam("rate") double rate,
+            @RequestParam("years") int years) {
+
+        if (!PaymentController.isValidLoan(amount, rate, years)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST));
+        }
+
+        long payment;
+        try {
+            payment = paymentCalculator.calculateCents(amount, rate, years);
+        } catch (ArithmeticException e) {
+            // too many cents for a long
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+        }
+
+        Mono<ReturnValue> returnValue = counterService.incrementCounter()
+                .map(count -> new ReturnValue.Builder()
+                        .withAmount(amount)
+                        .withRate(rate)
+                        .withYears(years)
+                        .withPaymentCents(payment)
+                        .withCount(count)
+                        .build());
+
+        // latency from /fault/latency - a timer, so the event loop is not blocked
+        long latency = crasher.paymentLatencyMillis();
+        return latency > 0 ? returnValue.delayElement(Duration.ofMillis(latency)) : returnValue;
+    }
+
+    @CrossOrigin(origins="*")
+    @GetMapping("/resetCount")
+    public Mono<String> resetCount() {
+        return counterService.resetCount().thenReturn("OK");
+    }
+}
@@ -0,0 +1,58 @@
+package com.jgb.loancalculator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Caches the annuity denominator 1 - (1 + r)^-n so that the common quoted rates and terms
+// only pay for Math.pow once. Hits, misses, and evictions are published through actuator
+// as the "annuityFactors" cache
+public class AnnuityFactorCache implements MeterBinder {
+
+    private final Cache<Key, Double> cache;
+
+    public AnnuityFactorCache(long maximumSize) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public double denominator(double monthlyRate, int numberOfPayments) {
+        return cache.get(new Key(monthlyRate, numberOfPayments),
+                k -> 1.0 - Math.pow(1.0 + k.monthlyRate, -k.numberOfPayments));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "annuityFactors");
+    }
+
+    private static final class Key {
+        private final double monthlyRate;
+        private final int numberOfPayments;
+
+        private Key(double monthlyRate, int numberOfPayments) {
+            this.monthlyRate = monthlyRate;
+            this.numberOfPayments = numberOfPayments;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Double.hashCode(monthlyRate) + numberOfPayments;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Double.compare(monthlyRate, other.monthlyRate) == 0
+                    && numberOfPayments == other.numberOfPayments;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.jgb.loancalculator.service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Remembers recent quotes so repeated (amount, rate, years) requests skip the calculation.
+// Caffeine is lock free on reads and evicts by size and by age. Hits, misses, evictions, the
+// hit ratio, and an estimate of the memory used are published through actuator as the
+// "paymentQuotes" cache. The bulk calculation is not cached - batches are mostly unique loans
+public class CachingPaymentCalculator extends PaymentCalculator implements MeterBinder {
+
+    private static final String CACHE_NAME = "paymentQuotes";
+
+    // rough size of one entry: the key, the boxed value, and Caffeine's node
+    static final long ESTIMATED_ENTRY_BYTES = 32 + 16 + 72;
+
+    private final Cache<Quote, Long> cache;
+
+    public CachingPaymentCalculator(AnnuityFactorCache annuityFactorCache, long maximumSize, long expireAfterWriteSeconds) {
+        super(annuityFactorCache);
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public BigDecimal calculate(double amount, double rate, int years) {
+        return BigDecimal.valueOf(calculateCents(amount, rate, years), 2);
+    }
+
+    @Override
+    public long calculateCents(double amount, double rate, int years) {
+        return cache.get(new Quote(amount, rate, years), q -> super.calculateCents(q.amount, q.rate, q.years));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", CACHE_NAME)
+                .description("The fraction of lookups that were answered from the cache")
+                .register(registry);
+        Gauge.builder("cache.memory.estimated", cache, c -> c.estimatedSize() * ESTIMATED_ENTRY_BYTES)
+                .tag("cache", CACHE_NAME)
+                .baseUnit("bytes")
+                .description("An estimate of the heap used by cache entries")
+                .register(registry);
+    }
+
+    private static final class Quote {
+        private final double amount;
+        private final double rate;
+        private final int years;
+
+        private Quote(double amount, double rate, int years) {
+            this.amount = amount;
+            this.rate = rate;
+            this.years = years;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Double.hashCode(amount);
+            result = 31 * result + Double.hashCode(rate);
+            return 31 * result + years;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Quote)) {
+                return false;
+            }
+            Quote other = (Quote) obj;
+            return Double.compare(amount, other.amount) == 0
+                    && Double.compare(rate, other.rate) == 0
+                    && years == other.years;
+        }
+    }
+}
@@ -1,16 +1,66 @@
-package com.jgb.loancalculator.service;
-
-public class CounterServiceInMemory implements CounterService {
-
-    private long count;
-    
-    @Override
-    public long incrementCounter() {
-        return ++count;
-    }
-
-    @Override
-    public void resetCount() {
-        count = 0;
-    }
-}
+package com.jgb.loancalculator.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Every request gets its own count, as it does from Redis INCR, without every thread updating
+// one shared field. Threads are spread over a few stripes per core, and each stripe hands out
+// values from a block of BLOCK_SIZE that it reserves with one getAndAdd on the shared counter -
+// the same idea as the Redis block counter. So the shared cache line is written once per block,
+// and a stripe's lock is only contended by the threads that hash to it.
+//
+// Counts are unique and rise within each thread, but are not strictly ordered across threads
+// and not gap free: a block that is not used up is skipped. A reset drops every stripe's block,
+// and an increment racing a reset counts as happening before it
+public class CounterServiceInMemory implements CounterService {
+
+    static final int BLOCK_SIZE = 256;
+    // a power of two, so a thread's stripe is picked with a mask
+    static final int STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+
+    // the highest value reserved by any stripe
+    private final AtomicLong reserved = new AtomicLong();
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    // bumped by every reset, so stripes drop blocks reserved before it
+    private volatile long epoch;
+
+    public CounterServiceInMemory() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public long incrementCounter() {
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+        synchronized (stripe) {
+            long currentEpoch = epoch;
+            if (stripe.next > stripe.limit || stripe.epoch != currentEpoch) {
+                long start = reserved.getAndAdd(BLOCK_SIZE);
+                stripe.next = start + 1;
+                stripe.limit = start + BLOCK_SIZE;
+                stripe.epoch = currentEpoch;
+            }
+            return stripe.next++;
+        }
+    }
+
+    // reserved is cleared before the epoch moves on, so a block taken under the new epoch
+    // always comes from the restarted counter
+    @Override
+    public synchronized void resetCount() {
+        reserved.set(0);
+        epoch++;
+    }
+
+    // padded so that stripes next to each other in memory don't share a cache line. All the
+    // fields are longs, so they keep their declared order
+    private static final class Stripe {
+        @SuppressWarnings("unused")
+        private long p1, p2, p3, p4, p5, p6, p7;
+        private long next = 1;
+        private long limit = 0;
+        private long epoch;
+        @SuppressWarnings("unused")
+        private long q1, q2, q3, q4, q5, q6, q7;
+    }
+}
@@ -0,0 +1,81 @@
+package com.jgb.loancalculator.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The in-memory counter, saved to a small memory-mapped file so the count survives a restart.
+// Increments only touch the AtomicLong. A background thread copies the count into the mapped
+// page every flushMillis - a plain memory write, no syscall - and the kernel writes the page
+// back even if the JVM dies, so after System.exit or kill -9 at most flushMillis of increments
+// are lost. close() (called by Spring on shutdown, including from the System.exit shutdown
+// hook) writes the final count and forces it to disk.
+public class CounterServiceMappedFile implements CounterService, Closeable {
+
+    // file layout: int magic, int unused, long count
+    private static final int MAGIC = 0x4C434331; // "LCC1"
+    private static final int FILE_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "counter-file-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong count = new AtomicLong();
+
+    public CounterServiceMappedFile(Path file, long flushMillis) {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map counter file " + file, e);
+        }
+
+        // a new (zero filled) or unrecognized file starts the count at zero
+        if (buffer.getInt(0) == MAGIC) {
+            count.set(buffer.getLong(COUNT_OFFSET));
+        } else {
+            buffer.putLong(COUNT_OFFSET, 0);
+            buffer.putInt(0, MAGIC);
+        }
+
+        flusher.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long incrementCounter() {
+        return count.incrementAndGet();
+    }
+
+    @Override
+    public void resetCount() {
+        count.set(0);
+        flush();
+    }
+
+    // only the flush thread, resetCount and close write the count, and an aligned long
+    // write to the page is never seen half done
+    private synchronized void flush() {
+        buffer.putLong(COUNT_OFFSET, count.get());
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdownNow();
+        flush();
+        buffer.force();
+        channel.close();
+    }
+}
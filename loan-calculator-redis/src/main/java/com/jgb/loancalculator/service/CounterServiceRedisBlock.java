@@ -0,0 +1,124 @@
+package com.jgb.loancalculator.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.redis.core.RedisTemplate;
+
+// Reserves a block of counter values with a single INCRBY and hands them out locally, so most
+// requests never wait on Redis. The next block is fetched in the background once a quarter of
+// the current block is left. The block size doubles when blocks are used up faster than the
+// target interval and halves when they last much longer, so the number of Redis calls stays
+// roughly constant whatever the request rate.
+//
+// Counts are unique across instances but no longer strictly ordered between them - each
+// instance works through its own block. They are not gap free either: the unused part of a
+// block is lost when the instance restarts or crashes, so the Redis key counts values reserved,
+// not requests served. A reset only drops this instance's block - other instances finish theirs
+// before they see the new value.
+public class CounterServiceRedisBlock implements CounterService {
+
+    private static final String REDIS_KEY = "loan-calculator";
+
+    private final RedisTemplate<String, Integer> redisTemplate;
+    private final long minBlockSize;
+    private final long maxBlockSize;
+    private final long targetBlockNanos;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "redis-counter-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // all guarded by this
+    private long next = 1;
+    private long limit = 0;
+    private long blockSize;
+    private long lastFetchNanos;
+    private CompletableFuture<Long> prefetch;
+    private long prefetchSize;
+
+    public CounterServiceRedisBlock(RedisTemplate<String, Integer> redisTemplate, long minBlockSize,
+            long maxBlockSize, long targetBlockMillis) {
+        this.redisTemplate = redisTemplate;
+        this.minBlockSize = minBlockSize;
+        this.maxBlockSize = maxBlockSize;
+        this.targetBlockNanos = TimeUnit.MILLISECONDS.toNanos(targetBlockMillis);
+        this.blockSize = minBlockSize;
+    }
+
+    @Override
+    public synchronized long incrementCounter() {
+        if (next > limit) {
+            takePrefetchedBlock();
+        }
+
+        long value = next++;
+        if (prefetch == null && limit - value < blockSize / 4) {
+            startPrefetch();
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized void resetCount() {
+        // let an in flight INCRBY land first so it can't bump the key after the reset
+        if (prefetch != null) {
+            prefetch.handle((upper, e) -> null).join();
+            prefetch = null;
+        }
+        redisTemplate.opsForValue().set(REDIS_KEY, 5000);
+
+        // drop the local block and start again from the smallest one
+        next = 1;
+        limit = 0;
+        blockSize = minBlockSize;
+        lastFetchNanos = 0;
+    }
+
+    public synchronized long getBlockSize() {
+        return blockSize;
+    }
+
+    private void takePrefetchedBlock() {
+        if (prefetch == null) {
+            startPrefetch();
+        }
+
+        try {
+            long upper = prefetch.join();
+            next = upper - prefetchSize + 1;
+            limit = upper;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            prefetch = null;
+        }
+    }
+
+    private void startPrefetch() {
+        adaptBlockSize();
+        long size = blockSize;
+        prefetchSize = size;
+        prefetch = CompletableFuture.supplyAsync(() -> redisTemplate.opsForValue().increment(REDIS_KEY, size), executor);
+    }
+
+    private void adaptBlockSize() {
+        long now = System.nanoTime();
+        if (lastFetchNanos != 0) {
+            long elapsed = now - lastFetchNanos;
+            if (elapsed < targetBlockNanos / 2) {
+                blockSize = Math.min(maxBlockSize, blockSize * 2);
+            } else if (elapsed > targetBlockNanos * 2) {
+                blockSize = Math.max(minBlockSize, blockSize / 2);
+            }
+        }
+        lastFetchNanos = now;
+    }
+}
@@ -0,0 +1,130 @@
+package com.jgb.loancalculator.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisTemplate;
+
+// The single key INCR counter behind a latency aware circuit breaker. Redis is called on the
+// request thread, and the Lettuce command timeout (set to slowCallMillis by CloudConfig) bounds
+// how long a request waits. A call that times out, fails, or takes longer than slowCallMillis
+// counts as a failure. After failureThreshold failures in a row the breaker opens and requests
+// count locally without touching Redis. Once openMillis has passed, the next request probes Redis
+// with its own increment, bounded by the same timeout. If that works the breaker closes, otherwise
+// it stays open for another openMillis.
+//
+// While Redis is slow or down the counts returned are estimates (the last value seen from Redis
+// plus the local delta) and can repeat across instances. The local delta is only sent, as one
+// INCRBY, after Redis has answered a request's own increment quickly. If that INCRBY fails or times
+// out the delta goes back into pending, so it is never lost - but one that timed out and still ran
+// is counted twice. A request's own increment that timed out is assumed to land: Lettuce may still
+// send it, so it is never counted twice, but it is lost if Lettuce dropped it while reconnecting.
+public class CounterServiceRedisBreaker implements CounterService {
+
+    private static final String REDIS_KEY = "loan-calculator";
+
+    private final RedisTemplate<String, Integer> redisTemplate;
+    private final long slowCallNanos;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    // increments that have not reached Redis yet
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lastRedisValue = new AtomicLong();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private volatile boolean open;
+    private volatile long openedAt;
+
+    public CounterServiceRedisBreaker(RedisTemplate<String, Integer> redisTemplate, long slowCallMillis,
+            int failureThreshold, long openMillis) {
+        this.redisTemplate = redisTemplate;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    @Override
+    public long incrementCounter() {
+        if (!open) {
+            return increment();
+        }
+
+        // one request at a time probes Redis once the breaker has been open long enough
+        if (System.nanoTime() - openedAt < openNanos || !probing.compareAndSet(false, true)) {
+            return lastRedisValue.get() + pending.incrementAndGet();
+        }
+        try {
+            return increment();
+        } finally {
+            probing.set(false);
+        }
+    }
+
+    @Override
+    public void resetCount() {
+        redisTemplate.opsForValue().set(REDIS_KEY, 5000);
+        pending.set(0);
+        lastRedisValue.set(5000);
+        consecutiveFailures.set(0);
+        open = false;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    // INCRBY 1 for this request, then the local delta once Redis has answered quickly
+    private long increment() {
+        long start = System.nanoTime();
+        long value;
+        try {
+            value = redisTemplate.opsForValue().increment(REDIS_KEY, 1);
+        } catch (QueryTimeoutException e) {
+            // the command may still be sent and run, so it is not pushed again
+            recordFailure();
+            return lastRedisValue.get() + pending.get() + 1;
+        } catch (DataAccessException e) {
+            recordFailure();
+            return lastRedisValue.get() + pending.incrementAndGet();
+        }
+
+        lastRedisValue.accumulateAndGet(value, Math::max);
+        if (System.nanoTime() - start > slowCallNanos) {
+            recordFailure();
+            return value;
+        }
+        consecutiveFailures.set(0);
+        open = false;
+        return pushPending(value);
+    }
+
+    // sends anything left over from the last outage, putting it back if the INCRBY fails
+    private long pushPending(long value) {
+        long delta = pending.getAndSet(0);
+        if (delta == 0) {
+            return value;
+        }
+        try {
+            long pushed = redisTemplate.opsForValue().increment(REDIS_KEY, delta);
+            lastRedisValue.accumulateAndGet(pushed, Math::max);
+            return pushed;
+        } catch (DataAccessException e) {
+            pending.addAndGet(delta);
+            recordFailure();
+            return value;
+        }
+    }
+
+    // opens the breaker, or keeps it open for another openNanos after a failed probe
+    private void recordFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt = System.nanoTime();
+            open = true;
+        }
+    }
+}
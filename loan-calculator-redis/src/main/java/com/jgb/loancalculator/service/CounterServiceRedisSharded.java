@@ -0,0 +1,174 @@
+package com.jgb.loancalculator.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Each instance increments its own key (loan-calculator:shard:<CF_INSTANCE_INDEX>) instead of all
+// of them sharing one hot key, so writes spread across Redis cluster slots and instances never
+// contend. The shard indexes are kept in the loan-calculator:shards set.
+//
+// The count returned is this instance's fresh shard value plus the other shards' total, which is
+// re-read with one MGET in the background at most once every refreshMillis. So counts from
+// different instances can lag each other by up to that long, and two instances can return the
+// same count in between - each adds its own fresh value to a stale total of the others. Counts
+// are only unique and ordered within one instance. After a reset, the other instances keep
+// adding their pre-reset total of the others until their next refresh, so for up to
+// refreshMillis they return counts far above 5000. currentCount() reads the exact total, and is
+// published as the loan-calculator.count gauge.
+public class CounterServiceRedisSharded implements CounterService, MeterBinder {
+
+    private static final String SHARD_KEY_PREFIX = "loan-calculator:shard:";
+    private static final String SHARDS_KEY = "loan-calculator:shards";
+
+    private static final Logger logger = LoggerFactory.getLogger(CounterServiceRedisSharded.class);
+
+    private final RedisTemplate<String, Integer> redisTemplate;
+    private final int shard;
+    private final String shardKey;
+    private final long refreshNanos;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "redis-counter-shards");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile boolean registered;
+    private volatile long otherShards;
+    private volatile long lastRefresh;
+
+    // instanceIndex is CF_INSTANCE_INDEX - shard 0 when it isn't set or isn't a valid index
+    public CounterServiceRedisSharded(RedisTemplate<String, Integer> redisTemplate, String instanceIndex, long refreshMillis) {
+        this.redisTemplate = redisTemplate;
+        this.shard = parseShard(instanceIndex);
+        this.shardKey = SHARD_KEY_PREFIX + shard;
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshMillis);
+        this.lastRefresh = System.nanoTime() - refreshNanos;
+    }
+
+    @Override
+    public long incrementCounter() {
+        if (!registered) {
+            register();
+        }
+
+        long own = redisTemplate.opsForValue().increment(shardKey, 1);
+        if (System.nanoTime() - lastRefresh >= refreshNanos && refreshing.compareAndSet(false, true)) {
+            executor.execute(this::refresh);
+        }
+        return own + otherShards;
+    }
+
+    // deletes every shard, then starts this one at 5000
+    @Override
+    public void resetCount() {
+        List<String> keys = shardKeys(redisTemplate.opsForSet().members(SHARDS_KEY));
+        if (!keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+        redisTemplate.opsForValue().set(shardKey, 5000);
+        register();
+        otherShards = 0;
+        lastRefresh = System.nanoTime();
+    }
+
+    // the exact total across all shards - one SMEMBERS and one MGET
+    public long currentCount() {
+        return sum(shardKeys(redisTemplate.opsForSet().members(SHARDS_KEY)));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("loan-calculator.count", this, CounterServiceRedisSharded::currentCountOrNaN)
+                .description("The hit count summed across the shards of every instance")
+                .register(registry);
+    }
+
+    // Micrometer does not catch exceptions thrown by a gauge, so a failed read reports NaN
+    private static double currentCountOrNaN(CounterServiceRedisSharded counterService) {
+        try {
+            return counterService.currentCount();
+        } catch (DataAccessException e) {
+            logger.warn("Could not read the shards' total", e);
+            return Double.NaN;
+        }
+    }
+
+    private void register() {
+        redisTemplate.opsForSet().add(SHARDS_KEY, shard);
+        registered = true;
+    }
+
+    private void refresh() {
+        try {
+            Set<Integer> shards = redisTemplate.opsForSet().members(SHARDS_KEY);
+            if (shards != null) {
+                shards.remove(shard);
+            }
+            otherShards = sum(shardKeys(shards));
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh the other shards' count, keeping the last total of {}", otherShards, e);
+        } finally {
+            // failures are not retried until the next refresh interval
+            lastRefresh = System.nanoTime();
+            refreshing.set(false);
+        }
+    }
+
+    private long sum(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+
+        long total = 0;
+        List<Integer> values = redisTemplate.opsForValue().multiGet(keys);
+        if (values != null) {
+            for (Integer value : values) {
+                if (value != null) {
+                    total += value;
+                }
+            }
+        }
+        return total;
+    }
+
+    private static int parseShard(String instanceIndex) {
+        if (instanceIndex == null) {
+            return 0;
+        }
+        try {
+            int shard = Integer.parseInt(instanceIndex.trim());
+            if (shard >= 0) {
+                return shard;
+            }
+        } catch (NumberFormatException e) {
+            // falls through to the warning
+        }
+        logger.warn("CF_INSTANCE_INDEX '{}' is not a valid instance index, using shard 0", instanceIndex);
+        return 0;
+    }
+
+    private static List<String> shardKeys(Set<Integer> shards) {
+        List<String> keys = new ArrayList<>();
+        if (shards != null) {
+            for (Integer shard : shards) {
+                keys.add(SHARD_KEY_PREFIX + shard);
+            }
+        }
+        return keys;
+    }
+}
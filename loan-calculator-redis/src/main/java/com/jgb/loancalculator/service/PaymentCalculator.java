@@ -1,31 +1,185 @@
 package com.jgb.loancalculator.service;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class PaymentCalculator {
+    // grids with more cells than this are split by row across the fork/join common pool
+    private static final int GRID_CELLS_PER_TASK = 2048;
+
+    private final AnnuityFactorCache annuityFactorCache;
+
+    public PaymentCalculator() {
+        this(null);
+    }
+
+    public PaymentCalculator(AnnuityFactorCache annuityFactorCache) {
+        this.annuityFactorCache = annuityFactorCache;
+    }
+
     public BigDecimal calculate(double amount, double rate, int years) {
-        if (rate == 0.0) {
-            return calculateWithoutInterest(amount, years);
+        return toMoney(payment(amount, rate, years));
+    }
+
+    // same result as calculate, but as a whole number of cents so that no BigDecimal is created
+    public long calculateCents(double amount, double rate, int years) {
+        return toCents(payment(amount, rate, years));
+    }
+
+    // bulk version of calculate - writes the payment for each (amount, rate, years) tuple
+    // into the matching slot of the payments array, rounded to cents
+    public void calculate(double[] amounts, double[] rates, int[] years, double[] payments) {
+        int length = amounts.length;
+        if (rates.length != length || years.length != length || payments.length != length) {
+            throw new IllegalArgumentException("All arrays must be the same length");
+        }
+
+        for (int i = 0; i < length; i++) {
+            payments[i] = toCents(payment(amounts[i], rates[i], years[i])) / 100.0;
+        }
+    }
+
+    // payment in cents for every combination of rate and term - payments[rate index][years index].
+    // Years must be in ascending order. Each row carries (1 + monthlyRate)^-n forward from the
+    // previous term, so there is one Math.pow per rate instead of one per cell. That costs one
+    // multiply per year up to the longest term, so callers must bound the terms, not just the cells
+    public long[][] calculateGrid(double amount, double[] rates, int[] years) {
+        for (int i = 0; i < years.length; i++) {
+            if (years[i] <= 0 || (i > 0 && years[i] <= years[i - 1])) {
+                throw new IllegalArgumentException("Years must be positive and in ascending order");
+            }
+        }
+
+        long[][] payments = new long[rates.length][years.length];
+        if ((long) rates.length * years.length <= GRID_CELLS_PER_TASK) {
+            calculateGridRows(amount, rates, years, payments, 0, rates.length);
         } else {
-            return calculateWithInterest(amount, rate, years);
+            ForkJoinPool.commonPool().invoke(new GridTask(amount, rates, years, payments, 0, rates.length));
         }
+        return payments;
     }
 
-    private BigDecimal calculateWithInterest(double amount, double rate, int years) {
-        double monthlyRate = rate / 100.0 / 12.0;
+    // walks the month by month amortization schedule, handing each row to the handler as it
+    // is calculated. Interest is rounded to cents each month and the final payment absorbs
+    // any rounding difference so the balance ends at exactly zero
+    public void amortize(double amount, double rate, int years, AmortizationRowHandler handler) throws IOException {
+        if (years <= 0) {
+            throw new IllegalArgumentException("Years must be positive");
+        }
         int numberOfPayments = years * 12;
-        double payment = (monthlyRate * amount) / (1.0 - Math.pow(1.0 + monthlyRate, -numberOfPayments));
-        return toMoney(payment);
+        double monthlyRate = rate / 100.0 / 12.0;
+        long payment = calculateCents(amount, rate, years);
+        long balance = toCents(amount);
+
+        for (int month = 1; month <= numberOfPayments; month++) {
+            long interest = toCents(balance * monthlyRate / 100.0);
+            long principal = month == numberOfPayments ? balance : Math.min(payment - interest, balance);
+            balance -= principal;
+            handler.handleRow(month, principal + interest, principal, interest, balance);
+        }
     }
 
-    private BigDecimal calculateWithoutInterest(double amount, int years) {
+    private double payment(double amount, double rate, int years) {
         int numberOfPayments = years * 12;
-        return toMoney(amount / numberOfPayments);
+        if (rate == 0.0) {
+            return amount / numberOfPayments;
+        } else {
+            double monthlyRate = rate / 100.0 / 12.0;
+            return (monthlyRate * amount) / denominator(monthlyRate, numberOfPayments);
+        }
+    }
+
+    private void calculateGridRows(double amount, double[] rates, int[] years, long[][] payments, int fromRow, int toRow) {
+        for (int row = fromRow; row < toRow; row++) {
+            double rate = rates[row];
+            long[] cells = payments[row];
+
+            if (rate == 0.0) {
+                for (int column = 0; column < years.length; column++) {
+                    cells[column] = toCents(amount / (years[column] * 12));
+                }
+            } else {
+                double monthlyRate = rate / 100.0 / 12.0;
+                double yearlyDiscount = Math.pow(1.0 + monthlyRate, -12);
+                double discount = 1.0;
+                int discountedYears = 0;
+                for (int column = 0; column < years.length; column++) {
+                    for (; discountedYears < years[column]; discountedYears++) {
+                        discount *= yearlyDiscount;
+                    }
+                    cells[column] = toCents((monthlyRate * amount) / (1.0 - discount));
+                }
+            }
+        }
     }
-    
+
+    private double denominator(double monthlyRate, int numberOfPayments) {
+        if (annuityFactorCache == null) {
+            return 1.0 - Math.pow(1.0 + monthlyRate, -numberOfPayments);
+        } else {
+            return annuityFactorCache.denominator(monthlyRate, numberOfPayments);
+        }
+    }
+
     private BigDecimal toMoney(double d) {
         BigDecimal bd = new BigDecimal(d);
         return bd.setScale(2, RoundingMode.HALF_UP);
     }
-}
\ No newline at end of file
+
+    // rounds to whole cents with the same HALF_UP result as toMoney. Only values that land
+    // within an ulp of a half cent are ambiguous in double arithmetic - those fall back to BigDecimal.
+    // Like toMoney, infinite and NaN values are rejected rather than clamped to a long, and so
+    // are amounts of 2^63 cents or more, which toMoney can represent but a long can't
+    private long toCents(double d) {
+        if (!Double.isFinite(d)) {
+            throw new NumberFormatException("Infinite or NaN");
+        }
+        double scaled = Math.abs(d) * 100.0;
+        if (scaled >= 0x1p63) {
+            throw new ArithmeticException("Too many cents for a long");
+        }
+        double whole = Math.floor(scaled);
+        double fraction = scaled - whole;
+        if (Math.abs(fraction - 0.5) <= Math.ulp(scaled)) {
+            return toMoney(d).movePointRight(2).longValueExact();
+        }
+
+        long cents = (long) whole + (fraction > 0.5 ? 1 : 0);
+        return d < 0.0 ? -cents : cents;
+    }
+
+    private class GridTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double amount;
+        private final double[] rates;
+        private final int[] years;
+        private final long[][] payments;
+        private final int fromRow;
+        private final int toRow;
+
+        GridTask(double amount, double[] rates, int[] years, long[][] payments, int fromRow, int toRow) {
+            this.amount = amount;
+            this.rates = rates;
+            this.years = years;
+            this.payments = payments;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            int rows = toRow - fromRow;
+            if (rows == 1 || (long) rows * years.length <= GRID_CELLS_PER_TASK) {
+                calculateGridRows(amount, rates, years, payments, fromRow, toRow);
+            } else {
+                int middle = fromRow + rows / 2;
+                invokeAll(new GridTask(amount, rates, years, payments, fromRow, middle),
+                        new GridTask(amount, rates, years, payments, middle, toRow));
+            }
+        }
+    }
+}
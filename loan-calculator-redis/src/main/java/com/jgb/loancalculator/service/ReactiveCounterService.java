@@ -0,0 +1,9 @@
+package com.jgb.loancalculator.service;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCounterService {
+
+    Mono<Long> incrementCounter();
+    Mono<Void> resetCount();
+}
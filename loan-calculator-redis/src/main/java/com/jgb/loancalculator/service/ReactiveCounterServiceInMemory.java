@@ -0,0 +1,23 @@
+package com.jgb.loancalculator.service;
+
+import reactor.core.publisher.Mono;
+
+// the in memory counter never blocks, so it can be called straight from the event loop
+public class ReactiveCounterServiceInMemory implements ReactiveCounterService {
+
+    private CounterService counterService;
+
+    public ReactiveCounterServiceInMemory(CounterService counterService) {
+        this.counterService = counterService;
+    }
+
+    @Override
+    public Mono<Long> incrementCounter() {
+        return Mono.fromSupplier(counterService::incrementCounter);
+    }
+
+    @Override
+    public Mono<Void> resetCount() {
+        return Mono.fromRunnable(counterService::resetCount);
+    }
+}
@@ -0,0 +1,24 @@
+package com.jgb.loancalculator.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+
+import reactor.core.publisher.Mono;
+
+public class ReactiveCounterServiceRedis implements ReactiveCounterService {
+
+    private static final String REDIS_KEY = "loan-calculator";
+
+    @Autowired
+    private ReactiveRedisTemplate<String, Integer> reactiveRedisTemplate;
+
+    @Override
+    public Mono<Long> incrementCounter() {
+        return reactiveRedisTemplate.opsForValue().increment(REDIS_KEY);
+    }
+
+    @Override
+    public Mono<Void> resetCount() {
+        return reactiveRedisTemplate.opsForValue().set(REDIS_KEY, 5000).then();
+    }
+}
@@ -0,0 +1,34 @@
+package com.jgb.loancalculator.service;
+
+import java.time.Duration;
+
+import reactor.core.publisher.Mono;
+
+// Wraps the real ReactiveCounterService so that Crasher can slow down counter calls. The delay is
+// a timer rather than a sleep, so the event loop is never blocked
+public class SlowReactiveCounterService implements ReactiveCounterService {
+    private final ReactiveCounterService counterService;
+    private final Crasher crasher;
+
+    public SlowReactiveCounterService(ReactiveCounterService counterService, Crasher crasher) {
+        this.counterService = counterService;
+        this.crasher = crasher;
+    }
+
+    @Override
+    public Mono<Long> incrementCounter() {
+        return delay().then(counterService.incrementCounter());
+    }
+
+    @Override
+    public Mono<Void> resetCount() {
+        return delay().then(counterService.resetCount());
+    }
+
+    private Mono<Long> delay() {
+        return Mono.defer(() -> {
+            long millis = crasher.counterLatencyMillis();
+            return millis > 0 ? Mono.delay(Duration.ofMillis(millis)) : Mono.empty();
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package com.jgb.loancalculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.catalina.connector.Connector;
+import org.junit.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class VirtualThreadConfigTest {
+
+    @Test
+    public void testExecutorIsInstalled() throws Exception {
+        // a named platform thread stands in for the virtual thread executor, so this runs on any JDK
+        ExecutorService standIn = Executors.newSingleThreadExecutor(r -> new Thread(r, "stand-in"));
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+
+        VirtualThreadConfig.virtualThreadCustomizer(standIn, meterRegistry).customize(factory);
+        Connector connector = new Connector();
+        factory.getTomcatConnectorCustomizers().forEach(customizer -> customizer.customize(connector));
+
+        CompletableFuture<String> ranOn = new CompletableFuture<>();
+        CompletableFuture<Double> activeWhileRunning = new CompletableFuture<>();
+        connector.getProtocolHandler().getExecutor().execute(() -> {
+            activeWhileRunning.complete(meterRegistry.get("request.executor.active").gauge().value());
+            ranOn.complete(Thread.currentThread().getName());
+        });
+        assertEquals("stand-in", ranOn.get(10, TimeUnit.SECONDS));
+        assertEquals(1.0, activeWhileRunning.get(), 0.0);
+        assertTrue(meterRegistry.get("request.executor.carrier.threads").gauge().value() >= 0);
+        standIn.shutdown();
+    }
+
+    @Test
+    public void testFallsBackToTomcatPool() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+
+        VirtualThreadConfig.virtualThreadCustomizer(null, meterRegistry).customize(factory);
+
+        assertTrue(factory.getTomcatConnectorCustomizers().isEmpty());
+        assertNull(meterRegistry.find("request.executor.active").gauge());
+    }
+
+    @Test
+    public void testExecutorFoundOnlyWhereSupported() throws Exception {
+        boolean supported;
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            supported = true;
+        } catch (NoSuchMethodException e) {
+            supported = false;
+        }
+
+        ExecutorService virtualThreads = VirtualThreadConfig.newVirtualThreadPerTaskExecutor();
+        assertEquals(supported, virtualThreads != null);
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.jgb.loancalculator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jgb.loancalculator.service.CounterService;
+import com.jgb.loancalculator.service.CounterServiceInMemory;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+// Each call is what a request pays - the increment and reading back its count. Throughput is
+// reported per thread group, so the thread counts show how contention on the counter grows
+public class CounterServiceBenchmark {
+    private CounterService counterService = new CounterServiceInMemory();
+
+    @Benchmark
+    @Threads(1)
+    public long incrementCounter() {
+        return counterService.incrementCounter();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public long incrementCounter2Threads() {
+        return counterService.incrementCounter();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long incrementCounter4Threads() {
+        return counterService.incrementCounter();
+    }
+
+    // one thread per available processor
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long incrementCounterAllCores() {
+        return counterService.incrementCounter();
+    }
+}
@@ -0,0 +1,84 @@
+package com.jgb.loancalculator.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jgb.loancalculator.service.PaymentCalculator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentCalculatorBenchmark {
+    // not final so that the JIT can't constant fold the calculation
+    private double amount = 200000.0;
+    private double rate = 6.5;
+    private double zeroRate = 0.0;
+    private int years = 30;
+
+    // the rate sheet grid - 3.00 to 8.00 in 0.125 steps by 5 to 40 years
+    private double[] gridRates = new double[41];
+    private int[] gridYears = new int[36];
+
+    private PaymentCalculator paymentCalculator = new PaymentCalculator();
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < gridRates.length; i++) {
+            gridRates[i] = 3.0 + i * 0.125;
+        }
+        for (int i = 0; i < gridYears.length; i++) {
+            gridYears[i] = 5 + i;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calculateWithInterest() {
+        return paymentCalculator.calculate(amount, rate, years);
+    }
+
+    @Benchmark
+    public BigDecimal calculateWithoutInterest() {
+        return paymentCalculator.calculate(amount, zeroRate, years);
+    }
+
+    @Benchmark
+    public long calculateCentsWithInterest() {
+        return paymentCalculator.calculateCents(amount, rate, years);
+    }
+
+    @Benchmark
+    public long calculateCentsWithoutInterest() {
+        return paymentCalculator.calculateCents(amount, zeroRate, years);
+    }
+
+    @Benchmark
+    public long[][] gridIncremental() {
+        return paymentCalculator.calculateGrid(amount, gridRates, gridYears);
+    }
+
+    // what the rate sheet page does today - one full calculation per cell
+    @Benchmark
+    public long[][] gridCellByCell() {
+        long[][] payments = new long[gridRates.length][gridYears.length];
+        for (int i = 0; i < gridRates.length; i++) {
+            for (int j = 0; j < gridYears.length; j++) {
+                payments[i][j] = paymentCalculator.calculateCents(amount, gridRates[i], gridYears[j]);
+            }
+        }
+        return payments;
+    }
+}
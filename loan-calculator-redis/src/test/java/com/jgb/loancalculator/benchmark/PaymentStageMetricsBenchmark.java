@@ -0,0 +1,56 @@
+package com.jgb.loancalculator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.jgb.loancalculator.http.PaymentStageMetrics;
+import com.jgb.loancalculator.service.CounterService;
+import com.jgb.loancalculator.service.CounterServiceInMemory;
+import com.jgb.loancalculator.service.PaymentCalculator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// The work PaymentController does for one request with and without the stage timers and the
+// Server-Timing header, to show what leaving the timing on costs
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentStageMetricsBenchmark {
+    private double amount = 200000.0;
+    private double rate = 6.5;
+    private int years = 30;
+
+    private PaymentCalculator paymentCalculator = new PaymentCalculator();
+    private CounterService counterService = new CounterServiceInMemory();
+    private PaymentStageMetrics stageMetrics = new PaymentStageMetrics(new SimpleMeterRegistry());
+
+    @Benchmark
+    public void untimed(Blackhole blackhole) {
+        blackhole.consume(paymentCalculator.calculateCents(amount, rate, years));
+        blackhole.consume(counterService.incrementCounter());
+    }
+
+    @Benchmark
+    public void timed(Blackhole blackhole) {
+        long start = System.nanoTime();
+        blackhole.consume(paymentCalculator.calculateCents(amount, rate, years));
+        long calculated = System.nanoTime();
+        blackhole.consume(counterService.incrementCounter());
+        long counted = System.nanoTime();
+        blackhole.consume(stageMetrics.recordRequest(calculated - start, counted - calculated));
+        blackhole.consume(stageMetrics.recordSerialization(System.nanoTime() - counted));
+    }
+}
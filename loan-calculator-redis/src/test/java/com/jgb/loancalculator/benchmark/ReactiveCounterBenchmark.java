@@ -0,0 +1,145 @@
+package com.jgb.loancalculator.benchmark;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jgb.loancalculator.http.PaymentController;
+import com.jgb.loancalculator.http.PaymentStageMetrics;
+import com.jgb.loancalculator.http.ReactivePaymentController;
+import com.jgb.loancalculator.http.ReturnValue;
+import com.jgb.loancalculator.service.CounterServiceRedis;
+import com.jgb.loancalculator.service.Crasher;
+import com.jgb.loancalculator.service.PaymentCalculator;
+import com.jgb.loancalculator.service.ReactiveCounterServiceRedis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Serves a burst of concurrent /payment requests through the real PaymentController and
+// CounterServiceRedis on a fixed worker pool (the Tomcat model), and through the real
+// ReactivePaymentController and ReactiveCounterServiceRedis. Only the Redis templates are
+// stubbed - the blocking one sleeps and the reactive one completes on a timer, both after the
+// same latency. Each operation is one burst of "requests" calls
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactiveCounterBenchmark {
+
+    @Param({"1", "10"})
+    private long redisLatencyMillis;
+
+    @Param({"1000"})
+    private int requests;
+
+    // Tomcat's default maximum is 200 worker threads
+    @Param({"200"})
+    private int workerThreads;
+
+    private ExecutorService workers;
+    private PaymentController paymentController;
+    private ReactivePaymentController reactivePaymentController;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        AtomicLong redisValue = new AtomicLong();
+        workers = Executors.newFixedThreadPool(workerThreads);
+        PaymentCalculator paymentCalculator = new PaymentCalculator();
+        Crasher crasher = new Crasher();
+
+        // stubOnly, so the mocks don't keep every invocation for the whole run
+        ValueOperations<String, Integer> valueOperations = mock(ValueOperations.class, withSettings().stubOnly());
+        when(valueOperations.increment(anyString(), anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(redisLatencyMillis);
+            return redisValue.addAndGet(invocation.getArgument(1));
+        });
+        RedisTemplate<String, Integer> redisTemplate = mock(RedisTemplate.class, withSettings().stubOnly());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        CounterServiceRedis counterService = new CounterServiceRedis();
+        ReflectionTestUtils.setField(counterService, "redisTemplate", redisTemplate);
+        paymentController = new PaymentController();
+        ReflectionTestUtils.setField(paymentController, "counterService", counterService);
+        ReflectionTestUtils.setField(paymentController, "paymentCalculator", paymentCalculator);
+        ReflectionTestUtils.setField(paymentController, "stageMetrics", new PaymentStageMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(paymentController, "crasher", crasher);
+
+        ReactiveValueOperations<String, Integer> reactiveValueOperations = mock(ReactiveValueOperations.class, withSettings().stubOnly());
+        when(reactiveValueOperations.increment(anyString())).thenAnswer(invocation ->
+                Mono.delay(Duration.ofMillis(redisLatencyMillis)).map(tick -> redisValue.incrementAndGet()));
+        ReactiveRedisTemplate<String, Integer> reactiveRedisTemplate = mock(ReactiveRedisTemplate.class, withSettings().stubOnly());
+        when(reactiveRedisTemplate.opsForValue()).thenReturn(reactiveValueOperations);
+
+        ReactiveCounterServiceRedis reactiveCounterService = new ReactiveCounterServiceRedis();
+        ReflectionTestUtils.setField(reactiveCounterService, "reactiveRedisTemplate", reactiveRedisTemplate);
+        reactivePaymentController = new ReactivePaymentController();
+        ReflectionTestUtils.setField(reactivePaymentController, "counterService", reactiveCounterService);
+        ReflectionTestUtils.setField(reactivePaymentController, "paymentCalculator", paymentCalculator);
+        ReflectionTestUtils.setField(reactivePaymentController, "crasher", crasher);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Benchmark
+    public long blockingWorkerPool() throws InterruptedException, ExecutionException {
+        List<Future<ReturnValue>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            futures.add(workers.submit(() -> paymentController
+                    .calculatePayment(200000.0, 6.5, 30, new MockHttpServletResponse()).getBody()));
+        }
+
+        long last = 0;
+        for (Future<ReturnValue> future : futures) {
+            last = future.get().getCount();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public long reactive() {
+        return Flux.range(0, requests)
+                .flatMap(i -> reactivePaymentController.calculatePayment(200000.0, 6.5, 30), requests)
+                .map(ReturnValue::getCount)
+                .blockLast();
+    }
+}
@@ -0,0 +1,129 @@
+package com.jgb.loancalculator.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Time from launching a new JVM to the first successful /payment. Each invocation starts the app
+// in its own process, so this is a single shot measurement and JIT warmup doesn't apply.
+//
+// fast-start-cds runs the jar and AppCDS archive built by "./mvnw -P fast-start package", so it is
+// not run by default. Add it with -Dbenchmark.args="StartupBenchmark -p mode=default,fast-start,fast-start-cds"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+    private static final long STARTUP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    @Param({"default", "fast-start"})
+    private String mode;
+
+    private Process process;
+
+    @Benchmark
+    public int timeToFirstPayment() throws Exception {
+        int port = freePort();
+        process = new ProcessBuilder(command(port))
+                .redirectErrorStream(true)
+                .redirectOutput(Redirect.appendTo(new File("target/startup-benchmark.log")))
+                .start();
+
+        URL url = new URL("http://localhost:" + port + "/payment?amount=200000&rate=6.5&years=30");
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("App exited with " + process.exitValue() + ", see target/startup-benchmark.log");
+            }
+            int status = tryPayment(url);
+            if (status == 200) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("No successful /payment within " + STARTUP_TIMEOUT_MILLIS + " ms");
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            process.waitFor();
+            process = null;
+        }
+    }
+
+    private List<String> command(int port) {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+
+        if ("fast-start-cds".equals(mode)) {
+            File directory = new File("target/fast-start");
+            File[] jars = directory.listFiles((dir, name) -> name.endsWith("-fast-start.jar"));
+            File archive = new File(directory, "app-cds.jsa");
+            if (jars == null || jars.length == 0 || !archive.exists()) {
+                throw new IllegalStateException("Run \"./mvnw -P fast-start package\" to build the AppCDS archive first");
+            }
+            command.add("-XX:SharedArchiveFile=" + archive.getPath());
+            command.add("-jar");
+            command.add(jars[0].getPath());
+        } else {
+            command.add("-classpath");
+            command.add(System.getProperty("java.class.path"));
+            command.add("com.jgb.loancalculator.DemoApplication");
+        }
+
+        if (!"default".equals(mode)) {
+            command.add("--spring.profiles.active=fast-start");
+        }
+        command.add("--server.port=" + port);
+        return command;
+    }
+
+    private static int tryPayment(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(1000);
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                // drain the body so the connection is closed cleanly
+                if (in != null) {
+                    while (in.read() != -1) {
+                    }
+                }
+            }
+            return status;
+        } catch (IOException e) {
+            // not listening yet
+            return -1;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.jgb.loancalculator.http;
+
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.core.Is.*;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.jgb.loancalculator.service.Crasher;
+
+@RunWith(SpringRunner.class)
+@WebAppConfiguration
+@SpringBootTest
+public class FaultControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Before
+    public void setup() {
+        mockMvc = webAppContextSetup(webApplicationContext).build();
+    }
+
+    @After
+    public void allOff() throws Exception {
+        mockMvc.perform(get("/fault/off")).andExpect(status().is(HttpStatus.OK.value()));
+    }
+
+    @Test
+    public void testPaymentLatency() throws Exception {
+        mockMvc.perform(get("/fault/latency?millis=100&seconds=10")).andExpect(status().is(HttpStatus.OK.value()));
+        mockMvc.perform(get("/fault")).andExpect(jsonPath("$.paymentLatencyMillis", is(100)));
+
+        long start = System.nanoTime();
+        mockMvc.perform(get("/payment?amount=200000&rate=6.5&years=30")).andExpect(status().is(HttpStatus.OK.value()));
+        assertTrue(System.nanoTime() - start >= 100_000_000L);
+
+        mockMvc.perform(get("/fault/latency/off")).andExpect(status().is(HttpStatus.OK.value()));
+        mockMvc.perform(get("/fault")).andExpect(jsonPath("$.paymentLatencyMillis", is(0)));
+    }
+
+    @Test
+    public void testCounterLatency() throws Exception {
+        mockMvc.perform(get("/fault/counter?millis=100")).andExpect(status().is(HttpStatus.OK.value()));
+
+        long start = System.nanoTime();
+        mockMvc.perform(get("/resetCount")).andExpect(status().is(HttpStatus.OK.value()));
+        assertTrue(System.nanoTime() - start >= 100_000_000L);
+    }
+
+    @Test
+    public void testBadRequest() throws Exception {
+        mockMvc.perform(get("/fault/cpu?percent=0")).andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+        mockMvc.perform(get("/fault/heap?megabytes=1&seconds=0")).andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+        mockMvc.perform(get("/fault/cpu?percent=50&seconds=" + (Crasher.MAX_SECONDS + 1)))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+        mockMvc.perform(get("/fault/latency?millis=" + Long.MAX_VALUE)).andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+        mockMvc.perform(get("/fault/counter?millis=" + (Crasher.MAX_MILLIS + 1))).andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.jgb.loancalculator.http;
+
+import static org.junit.Assert.assertTrue;
+
+import com.jgb.loancalculator.CloudConfig;
+import com.jgb.loancalculator.DemoApplication;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@RunWith(SpringRunner.class)
+// same setting as application-reactive.properties - the test context picks its web
+// application type before profiles are applied
+@SpringBootTest(properties="spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+public class ReactivePaymentControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void testNoParameters() {
+        webTestClient.get().uri("/payment").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testInvalidLoan() {
+        webTestClient.get().uri("/payment?amount=200000&rate=6.5&years=0").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/payment?amount=NaN&rate=6.5&years=30").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testPaymentTooLarge() {
+        webTestClient.get().uri("/payment?amount=1e20&rate=5&years=30").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testThatCounterDoesIncrement() {
+        webTestClient.get().uri("/resetCount").exchange().expectStatus().isOk();
+
+        webTestClient.get().uri("/payment?amount=180000&rate=0&years=30")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentType(MediaType.APPLICATION_JSON_UTF8)
+        .expectBody()
+        .jsonPath("$.amount").isEqualTo(180000.0)
+        .jsonPath("$.years").isEqualTo(30)
+        .jsonPath("$.rate").isEqualTo(0.0)
+        .jsonPath("$.payment").isEqualTo(500.0)
+        .jsonPath("$.instance").isEmpty()
+        .jsonPath("$.count").isEqualTo(1);
+
+        webTestClient.get().uri("/payment?amount=200000&rate=6.5&years=30")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.payment").isEqualTo(1264.14)
+        .jsonPath("$.count").isEqualTo(2);
+    }
+
+    @Test
+    public void testFaultLatency() {
+        webTestClient.get().uri("/fault/latency?millis=100&seconds=10").exchange().expectStatus().isOk();
+        webTestClient.get().uri("/fault/counter?millis=100&seconds=10").exchange().expectStatus().isOk();
+        try {
+            long start = System.nanoTime();
+            webTestClient.get().uri("/payment?amount=200000&rate=6.5&years=30").exchange().expectStatus().isOk();
+            assertTrue(System.nanoTime() - start >= 200_000_000L);
+        } finally {
+            webTestClient.get().uri("/fault/off").exchange().expectStatus().isOk();
+        }
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testCounterFileIsRejected() {
+        new DemoApplication().reactiveCounterService(true);
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testBlockingCounterModeIsRejected() {
+        new CloudConfig().reactiveCounterService("block");
+    }
+}
@@ -0,0 +1,43 @@
+package com.jgb.loancalculator.http;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ReturnValueSerializerTest {
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testSerialization() throws Exception {
+        ReturnValue returnValue = new ReturnValue.Builder()
+                .withAmount(200000.0)
+                .withRate(6.5)
+                .withYears(30)
+                .withPaymentCents(126414L)
+                .withCount(3L)
+                .build();
+
+        assertEquals("{\"amount\":200000.0,\"rate\":6.5,\"years\":30,\"payment\":1264.14,\"instance\":null,\"count\":3}",
+                objectMapper.writeValueAsString(returnValue));
+    }
+
+    @Test
+    public void testSmallAndNegativePayments() throws Exception {
+        assertEquals("0.05", paymentJson(new BigDecimal("0.05")));
+        assertEquals("0.00", paymentJson(new BigDecimal("0.00")));
+        assertEquals("-12.30", paymentJson(new BigDecimal("-12.30")));
+        assertEquals("500.00", paymentJson(new BigDecimal("500.00")));
+    }
+
+    private String paymentJson(BigDecimal payment) throws Exception {
+        ReturnValue returnValue = new ReturnValue.Builder()
+                .withPayment(payment)
+                .build();
+        String json = objectMapper.writeValueAsString(returnValue);
+        return json.substring(json.indexOf("\"payment\":") + 10, json.indexOf(",\"instance\""));
+    }
+}
@@ -0,0 +1,42 @@
+package com.jgb.loancalculator.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CachingPaymentCalculatorTest {
+
+    @Test
+    public void testCachedResultsMatch() {
+        PaymentCalculator uncached = new PaymentCalculator();
+        PaymentCalculator cached = new CachingPaymentCalculator(null, 100, 60);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(new BigDecimal("1264.14"), cached.calculate(200000.0, 6.5, 30));
+            assertEquals(new BigDecimal("500.00"), cached.calculate(180000.0, 0.0, 30));
+            assertEquals(uncached.calculateCents(312500.0, 4.125, 15), cached.calculateCents(312500.0, 4.125, 15));
+        }
+    }
+
+    @Test
+    public void testMetrics() {
+        CachingPaymentCalculator cached = new CachingPaymentCalculator(null, 100, 60);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cached.bindTo(registry);
+
+        cached.calculateCents(200000.0, 6.5, 30);
+        cached.calculateCents(200000.0, 6.5, 30);
+        cached.calculateCents(200000.0, 6.5, 30);
+        cached.calculateCents(180000.0, 0.0, 30);
+
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "paymentQuotes").tag("result", "hit").functionCounter().count(), 0.0);
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "paymentQuotes").tag("result", "miss").functionCounter().count(), 0.0);
+        assertEquals(0.5, registry.get("cache.hit.ratio").tag("cache", "paymentQuotes").gauge().value(), 0.0);
+        assertEquals(2.0 * CachingPaymentCalculator.ESTIMATED_ENTRY_BYTES,
+                registry.get("cache.memory.estimated").tag("cache", "paymentQuotes").gauge().value(), 0.0);
+    }
+}
@@ -0,0 +1,111 @@
+package com.jgb.loancalculator.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class CounterServiceInMemoryTest {
+    private static final int THREADS = 200;
+    private static final int INCREMENTS_PER_THREAD = 10000;
+    private static final long TOTAL = (long) THREADS * INCREMENTS_PER_THREAD;
+    // each stripe can leave part of one block unused
+    private static final long MAX_SKIPPED = (long) CounterServiceInMemory.STRIPES * CounterServiceInMemory.BLOCK_SIZE;
+
+    @Test
+    public void testSingleThreadCountsFromOne() {
+        CounterService counterService = new CounterServiceInMemory();
+
+        for (long i = 1; i <= 3 * CounterServiceInMemory.BLOCK_SIZE; i++) {
+            assertEquals(i, counterService.incrementCounter());
+        }
+    }
+
+    // also shows no update is lost - there are as many distinct counts as calls
+    @Test
+    public void testEveryCallGetsItsOwnCount() throws Exception {
+        CounterService counterService = new CounterServiceInMemory();
+        long[][] counts = new long[THREADS][INCREMENTS_PER_THREAD];
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            long[] threadCounts = counts[i];
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < INCREMENTS_PER_THREAD; j++) {
+                    threadCounts[j] = counterService.incrementCounter();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // no value is returned twice, values rise within each thread, and only the unused ends
+        // of blocks are skipped
+        BitSet seen = new BitSet();
+        for (long[] threadCounts : counts) {
+            for (int j = 0; j < threadCounts.length; j++) {
+                assertFalse("duplicate count " + threadCounts[j], seen.get((int) threadCounts[j]));
+                seen.set((int) threadCounts[j]);
+                assertTrue(j == 0 || threadCounts[j] > threadCounts[j - 1]);
+            }
+        }
+        assertEquals(TOTAL, seen.cardinality());
+        assertEquals(1, seen.nextSetBit(0));
+        assertTrue(seen.length() - 1 <= TOTAL + MAX_SKIPPED);
+    }
+
+    @Test
+    public void testResetDuringIncrements() throws Exception {
+        CounterService counterService = new CounterServiceInMemory();
+
+        incrementConcurrently(counterService, counterService::resetCount);
+
+        // increments that landed after the reset are counted, those before it are not
+        long count = counterService.incrementCounter();
+        assertTrue(count >= 1 && count <= TOTAL + MAX_SKIPPED + 1);
+
+        counterService.resetCount();
+        assertEquals(1L, counterService.incrementCounter());
+    }
+
+    // starts all threads together, runs whileIncrementing on this thread, then waits for the threads to finish
+    private void incrementConcurrently(CounterService counterService, Runnable whileIncrementing) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < INCREMENTS_PER_THREAD; j++) {
+                    counterService.incrementCounter();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        whileIncrementing.run();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
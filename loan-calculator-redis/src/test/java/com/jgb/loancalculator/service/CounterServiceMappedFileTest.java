@@ -0,0 +1,106 @@
+package com.jgb.loancalculator.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CounterServiceMappedFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCountRestoredAfterClose() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("count.dat");
+        CounterServiceMappedFile counterService = new CounterServiceMappedFile(file, 60000);
+        for (int i = 0; i < 100; i++) {
+            counterService.incrementCounter();
+        }
+        counterService.close();
+
+        CounterServiceMappedFile restored = new CounterServiceMappedFile(file, 60000);
+        assertEquals(101L, restored.incrementCounter());
+        restored.close();
+    }
+
+    @Test
+    public void testCountSurvivesWithoutClose() throws Exception {
+        // no close - as after kill -9, only what the flush thread wrote to the page is there
+        Path file = folder.getRoot().toPath().resolve("count.dat");
+        CounterServiceMappedFile counterService = new CounterServiceMappedFile(file, 10);
+        for (int i = 0; i < 100; i++) {
+            counterService.incrementCounter();
+        }
+        Thread.sleep(200);
+
+        CounterServiceMappedFile restored = new CounterServiceMappedFile(file, 60000);
+        assertEquals(101L, restored.incrementCounter());
+        restored.close();
+        counterService.close();
+    }
+
+    @Test
+    public void testResetIsPersisted() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("count.dat");
+        CounterServiceMappedFile counterService = new CounterServiceMappedFile(file, 60000);
+        for (int i = 0; i < 100; i++) {
+            counterService.incrementCounter();
+        }
+        counterService.resetCount();
+
+        CounterServiceMappedFile restored = new CounterServiceMappedFile(file, 60000);
+        assertEquals(1L, restored.incrementCounter());
+        restored.close();
+        counterService.close();
+    }
+
+    @Test
+    public void testConcurrentCallsGetDistinctCounts() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("count.dat");
+        CounterServiceMappedFile counterService = new CounterServiceMappedFile(file, 60000);
+        Set<Long> counts = ConcurrentHashMap.newKeySet();
+        Runnable increments = () -> {
+            for (int i = 0; i < 10000; i++) {
+                counts.add(counterService.incrementCounter());
+            }
+        };
+        Thread other = new Thread(increments);
+        other.start();
+        increments.run();
+        other.join();
+
+        assertEquals(20000, counts.size());
+        assertEquals(20001L, counterService.incrementCounter());
+        counterService.close();
+    }
+
+    @Test
+    public void testUnrecognizedFileStartsAtZero() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("count.dat");
+        Files.write(file, "not a counter file".getBytes("UTF-8"));
+
+        CounterServiceMappedFile counterService = new CounterServiceMappedFile(file, 60000);
+        assertEquals(1L, counterService.incrementCounter());
+        counterService.close();
+    }
+
+    @Test
+    public void testSlowCounterServiceClosesTheFile() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("count.dat");
+        SlowCounterService counterService = new SlowCounterService(new CounterServiceMappedFile(file, 60000), new Crasher());
+        counterService.incrementCounter();
+        counterService.incrementCounter();
+        counterService.close();
+
+        CounterServiceMappedFile restored = new CounterServiceMappedFile(file, 60000);
+        assertEquals(3L, restored.incrementCounter());
+        restored.close();
+    }
+}
@@ -0,0 +1,140 @@
+package com.jgb.loancalculator.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+public class CounterServiceRedisBlockTest {
+
+    // stand in for the Redis key - INCRBY and SET against an AtomicLong
+    private AtomicLong redisValue = new AtomicLong();
+    private AtomicInteger incrementCalls = new AtomicInteger();
+    private AtomicBoolean redisDown = new AtomicBoolean();
+    private RedisTemplate<String, Integer> redisTemplate;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        ValueOperations<String, Integer> valueOperations = mock(ValueOperations.class);
+        when(valueOperations.increment(anyString(), anyLong())).thenAnswer(invocation -> {
+            if (redisDown.get()) {
+                throw new RedisConnectionFailureException("Redis is down");
+            }
+            incrementCalls.incrementAndGet();
+            return redisValue.addAndGet(invocation.getArgument(1));
+        });
+        doAnswer(invocation -> {
+            redisValue.set(((Integer) invocation.getArgument(1)).longValue());
+            return null;
+        }).when(valueOperations).set(anyString(), eq(5000));
+
+        redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    public void testValuesAreSequentialWithFewRoundTrips() {
+        CounterService counterService = new CounterServiceRedisBlock(redisTemplate, 10, 1000, 1000);
+
+        for (long i = 1; i <= 10000; i++) {
+            assertEquals(i, counterService.incrementCounter());
+        }
+        assertTrue(incrementCalls.get() < 1000);
+    }
+
+    @Test
+    public void testBlockSizeGrowsUnderLoad() {
+        CounterServiceRedisBlock counterService = new CounterServiceRedisBlock(redisTemplate, 10, 1000, 60000);
+
+        for (int i = 0; i < 10000; i++) {
+            counterService.incrementCounter();
+        }
+        assertEquals(1000L, counterService.getBlockSize());
+    }
+
+    @Test
+    public void testValuesAreUniqueAcrossInstances() throws Exception {
+        CounterService instance1 = new CounterServiceRedisBlock(redisTemplate, 10, 1000, 1000);
+        CounterService instance2 = new CounterServiceRedisBlock(redisTemplate, 10, 1000, 1000);
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            CounterService counterService = i % 2 == 0 ? instance1 : instance2;
+            executor.submit(() -> {
+                for (int j = 0; j < 5000; j++) {
+                    values.add(counterService.incrementCounter());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(40000, values.size());
+    }
+
+    @Test
+    public void testReset() {
+        CounterService counterService = new CounterServiceRedisBlock(redisTemplate, 10, 1000, 1000);
+        for (int i = 0; i < 25; i++) {
+            counterService.incrementCounter();
+        }
+
+        counterService.resetCount();
+
+        assertEquals(5001L, counterService.incrementCounter());
+        assertEquals(5002L, counterService.incrementCounter());
+    }
+
+    @Test
+    public void testResetDropsTheLocalBlock() {
+        CounterServiceRedisBlock counterService = new CounterServiceRedisBlock(redisTemplate, 10, 1000, 60000);
+        for (int i = 0; i < 10000; i++) {
+            counterService.incrementCounter();
+        }
+        assertEquals(1000L, counterService.getBlockSize());
+
+        counterService.resetCount();
+
+        assertEquals(5001L, counterService.incrementCounter());
+        assertEquals(10L, counterService.getBlockSize());
+        assertEquals(5010L, redisValue.get());
+    }
+
+    @Test
+    public void testRedisFailureIsReportedAndRecovers() {
+        CounterService counterService = new CounterServiceRedisBlock(redisTemplate, 10, 10, 1000);
+        redisDown.set(true);
+
+        try {
+            counterService.incrementCounter();
+            fail("Expected RedisConnectionFailureException");
+        } catch (RedisConnectionFailureException e) {
+            // expected
+        }
+
+        redisDown.set(false);
+        assertEquals(1L, counterService.incrementCounter());
+    }
+}
@@ -0,0 +1,261 @@
+package com.jgb.loancalculator.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+public class CounterServiceRedisBreakerTest {
+
+    private static final long COMMAND_TIMEOUT_MILLIS = 20;
+
+    // stand in for the Redis key that can be slowed, taken down, paused, or disconnected. While
+    // paused or disconnected a call gives up after COMMAND_TIMEOUT_MILLIS, as Lettuce would. A
+    // paused call's increment is applied when Redis resumes, as a command already sent would be. A
+    // disconnected call's is never applied, as Lettuce drops queued commands that timed out
+    private AtomicLong redisValue = new AtomicLong();
+    private List<Long> increments = new CopyOnWriteArrayList<>();
+    private AtomicBoolean redisDown = new AtomicBoolean();
+    private AtomicBoolean disconnected = new AtomicBoolean();
+    // times out only the INCRBY that carries a local delta
+    private AtomicBoolean deltaTimesOut = new AtomicBoolean();
+    private AtomicLong latencyMillis = new AtomicLong();
+    private Object pauseLock = new Object();
+    private boolean paused;
+    private List<Long> sentWhilePaused = new ArrayList<>();
+    private RedisTemplate<String, Integer> redisTemplate;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        ValueOperations<String, Integer> valueOperations = mock(ValueOperations.class);
+        when(valueOperations.increment(anyString(), anyLong())).thenAnswer(invocation -> {
+            long amount = invocation.getArgument(1);
+            synchronized (pauseLock) {
+                if (paused) {
+                    pauseLock.wait(COMMAND_TIMEOUT_MILLIS);
+                    if (paused) {
+                        sentWhilePaused.add(amount);
+                        throw new QueryTimeoutException("Redis command timed out");
+                    }
+                }
+            }
+            if (redisDown.get()) {
+                throw new RedisConnectionFailureException("Redis is down");
+            }
+            if (disconnected.get() || (amount > 1 && deltaTimesOut.get())) {
+                Thread.sleep(COMMAND_TIMEOUT_MILLIS);
+                throw new QueryTimeoutException("Redis command timed out");
+            }
+            Thread.sleep(latencyMillis.get());
+            increments.add(amount);
+            return redisValue.addAndGet(amount);
+        });
+        doAnswer(invocation -> {
+            redisValue.set(((Integer) invocation.getArgument(1)).longValue());
+            return null;
+        }).when(valueOperations).set(anyString(), eq(5000));
+
+        redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @After
+    public void resume() {
+        setPaused(false);
+    }
+
+    @Test
+    public void testCountsInRedisWhenHealthy() {
+        CounterService counterService = new CounterServiceRedisBreaker(redisTemplate, 1000, 3, 1000);
+
+        for (long i = 1; i <= 100; i++) {
+            assertEquals(i, counterService.incrementCounter());
+        }
+        assertEquals(100, increments.size());
+    }
+
+    @Test
+    public void testLatencyStaysFlatWhileRedisIsPaused() {
+        CounterServiceRedisBreaker counterService = new CounterServiceRedisBreaker(redisTemplate, 20, 3, 60000);
+        counterService.incrementCounter();
+
+        setPaused(true);
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            counterService.incrementCounter();
+        }
+        // each of the calls that opens the breaker waits no longer than the command timeout
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(3 * COMMAND_TIMEOUT_MILLIS + 200));
+        assertTrue(counterService.isOpen());
+
+        start = System.nanoTime();
+        for (int i = 0; i < 10000; i++) {
+            counterService.incrementCounter();
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    public void testSlowCallsOpenTheBreaker() {
+        CounterServiceRedisBreaker counterService = new CounterServiceRedisBreaker(redisTemplate, 10, 2, 60000);
+        latencyMillis.set(30);
+
+        // the values still come from Redis, but the calls count as failures
+        assertEquals(1L, counterService.incrementCounter());
+        assertEquals(2L, counterService.incrementCounter());
+        assertTrue(counterService.isOpen());
+    }
+
+    @Test
+    public void testProbeIsBounded() throws InterruptedException {
+        CounterServiceRedisBreaker counterService = new CounterServiceRedisBreaker(redisTemplate, 20, 1, 100);
+        setPaused(true);
+        counterService.incrementCounter();
+        assertTrue(counterService.isOpen());
+
+        // the probe gives up at the command timeout and the breaker stays open
+        Thread.sleep(150);
+        long start = System.nanoTime();
+        counterService.incrementCounter();
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(COMMAND_TIMEOUT_MILLIS + 200));
+        assertTrue(counterService.isOpen());
+
+        setPaused(false);
+        Thread.sleep(150);
+        counterService.incrementCounter();
+        assertFalse(counterService.isOpen());
+    }
+
+    @Test
+    public void testLocalDeltaIsPushedBackOnceRedisAnswers() throws InterruptedException {
+        CounterServiceRedisBreaker counterService = new CounterServiceRedisBreaker(redisTemplate, 1000, 1, 100);
+        counterService.incrementCounter();
+
+        redisDown.set(true);
+        for (int i = 0; i < 500; i++) {
+            counterService.incrementCounter();
+        }
+        assertTrue(counterService.isOpen());
+        int callsWhileDown = increments.size();
+
+        redisDown.set(false);
+        Thread.sleep(150);
+        // this call probes Redis with its own increment, then sends the 500 local ones in one INCRBY
+        assertEquals(502L, counterService.incrementCounter());
+        assertFalse(counterService.isOpen());
+
+        assertEquals(callsWhileDown + 2, increments.size());
+        assertEquals(1L, (long) increments.get(increments.size() - 2));
+        assertEquals(500L, (long) increments.get(increments.size() - 1));
+        assertEquals(502L, redisValue.get());
+        assertEquals(503L, counterService.incrementCounter());
+    }
+
+    @Test
+    public void testLocalDeltaSurvivesAProbeThatTimesOut() throws InterruptedException {
+        CounterServiceRedisBreaker counterService = new CounterServiceRedisBreaker(redisTemplate, 1000, 1, 100);
+        counterService.incrementCounter();
+
+        redisDown.set(true);
+        for (int i = 0; i < 500; i++) {
+            counterService.incrementCounter();
+        }
+        assertTrue(counterService.isOpen());
+
+        // still reconnecting: the probe times out and Lettuce never sends it
+        redisDown.set(false);
+        disconnected.set(true);
+        Thread.sleep(150);
+        counterService.incrementCounter();
+        assertTrue(counterService.isOpen());
+
+        disconnected.set(false);
+        Thread.sleep(150);
+        counterService.incrementCounter();
+        assertFalse(counterService.isOpen());
+
+        // only the timed out probe's own increment is lost
+        assertEquals(502L, redisValue.get());
+    }
+
+    @Test
+    public void testLocalDeltaIsKeptWhenItsIncrbyTimesOut() {
+        CounterServiceRedisBreaker counterService = new CounterServiceRedisBreaker(redisTemplate, 1000, 3, 60000);
+        redisDown.set(true);
+        counterService.incrementCounter();
+        counterService.incrementCounter();
+        redisDown.set(false);
+
+        // this call's own INCRBY works, then the INCRBY with the 2 left over times out
+        deltaTimesOut.set(true);
+        assertEquals(1L, counterService.incrementCounter());
+        deltaTimesOut.set(false);
+
+        assertEquals(4L, counterService.incrementCounter());
+        assertEquals(4L, redisValue.get());
+    }
+
+    @Test
+    public void testNoIncrementIsLostOrDoubleCounted() throws InterruptedException {
+        CounterServiceRedisBreaker counterService = new CounterServiceRedisBreaker(redisTemplate, 10, 2, 100);
+
+        // calls that time out while paused land in Redis once it resumes, and must not be counted again
+        setPaused(true);
+        for (int i = 0; i < 1000; i++) {
+            counterService.incrementCounter();
+        }
+        setPaused(false);
+
+        Thread.sleep(150);
+        counterService.incrementCounter();
+        assertFalse(counterService.isOpen());
+        counterService.incrementCounter();
+
+        assertEquals(1002L, redisValue.get());
+    }
+
+    @Test
+    public void testReset() {
+        CounterService counterService = new CounterServiceRedisBreaker(redisTemplate, 1000, 3, 1000);
+        counterService.incrementCounter();
+
+        counterService.resetCount();
+
+        assertEquals(5001L, counterService.incrementCounter());
+    }
+
+    private void setPaused(boolean paused) {
+        synchronized (pauseLock) {
+            this.paused = paused;
+            if (!paused) {
+                for (long amount : sentWhilePaused) {
+                    increments.add(amount);
+                    redisValue.addAndGet(amount);
+                }
+                sentWhilePaused.clear();
+            }
+            pauseLock.notifyAll();
+        }
+    }
+}
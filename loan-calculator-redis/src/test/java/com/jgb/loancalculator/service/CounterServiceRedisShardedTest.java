@@ -0,0 +1,202 @@
+package com.jgb.loancalculator.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CounterServiceRedisShardedTest {
+
+    // stand in for Redis - string keys and one set, with the keys each INCR touched
+    private Map<String, AtomicLong> keys = new ConcurrentHashMap<>();
+    private Set<Integer> shards = ConcurrentHashMap.newKeySet();
+    private Set<String> incrementedKeys = ConcurrentHashMap.newKeySet();
+    private AtomicBoolean shardsUnreadable = new AtomicBoolean();
+    private RedisTemplate<String, Integer> redisTemplate;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        ValueOperations<String, Integer> valueOperations = mock(ValueOperations.class);
+        when(valueOperations.increment(anyString(), anyLong())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            incrementedKeys.add(key);
+            return keys.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(invocation.getArgument(1));
+        });
+        doAnswer(invocation -> {
+            keys.put(invocation.getArgument(0), new AtomicLong(((Integer) invocation.getArgument(1)).longValue()));
+            return null;
+        }).when(valueOperations).set(anyString(), eq(5000));
+        when(valueOperations.multiGet(anyCollection())).thenAnswer(invocation -> {
+            List<Integer> values = new ArrayList<>();
+            for (String key : (Collection<String>) invocation.getArgument(0)) {
+                AtomicLong value = keys.get(key);
+                values.add(value == null ? null : (int) value.get());
+            }
+            return values;
+        });
+
+        SetOperations<String, Integer> setOperations = mock(SetOperations.class);
+        when(setOperations.add(eq("loan-calculator:shards"), (Integer[]) any())).thenAnswer(invocation -> {
+            shards.add(invocation.getArgument(1));
+            return 1L;
+        });
+        when(setOperations.members("loan-calculator:shards")).thenAnswer(invocation -> {
+            if (shardsUnreadable.get()) {
+                throw new RedisConnectionFailureException("Redis is down");
+            }
+            return new HashSet<>(shards);
+        });
+
+        redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.delete(anyList())).thenAnswer(invocation -> {
+            long deleted = 0;
+            for (String key : (Collection<String>) invocation.getArgument(0)) {
+                deleted += keys.remove(key) == null ? 0 : 1;
+            }
+            return deleted;
+        });
+    }
+
+    @Test
+    public void testEachInstanceIncrementsItsOwnKey() throws Exception {
+        CounterService instance0 = new CounterServiceRedisSharded(redisTemplate, "0", 1000);
+        CounterService instance1 = new CounterServiceRedisSharded(redisTemplate, "1", 1000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            CounterService counterService = i % 2 == 0 ? instance0 : instance1;
+            executor.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    counterService.incrementCounter();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(2000L, keys.get("loan-calculator:shard:0").get());
+        assertEquals(2000L, keys.get("loan-calculator:shard:1").get());
+        assertFalse(incrementedKeys.contains("loan-calculator"));
+    }
+
+    @Test
+    public void testCountIncludesOtherShards() throws InterruptedException {
+        CounterServiceRedisSharded instance0 = new CounterServiceRedisSharded(redisTemplate, "0", 0);
+        CounterServiceRedisSharded instance1 = new CounterServiceRedisSharded(redisTemplate, "1", 0);
+
+        for (int i = 0; i < 10; i++) {
+            instance1.incrementCounter();
+        }
+        // the first call starts the background read of the other shards
+        instance0.incrementCounter();
+        Thread.sleep(100);
+
+        assertEquals(12L, instance0.incrementCounter());
+        assertEquals(12L, instance1.currentCount());
+    }
+
+    @Test
+    public void testResetClearsEveryShard() {
+        CounterServiceRedisSharded instance0 = new CounterServiceRedisSharded(redisTemplate, "0", 60000);
+        CounterServiceRedisSharded instance1 = new CounterServiceRedisSharded(redisTemplate, "1", 60000);
+        for (int i = 0; i < 10; i++) {
+            instance0.incrementCounter();
+            instance1.incrementCounter();
+        }
+
+        instance0.resetCount();
+
+        assertEquals(5000L, instance1.currentCount());
+        assertEquals(5001L, instance0.incrementCounter());
+        assertEquals(5001L, instance0.currentCount());
+    }
+
+    @Test
+    public void testTotalGauge() {
+        CounterServiceRedisSharded instance0 = new CounterServiceRedisSharded(redisTemplate, "0", 60000);
+        CounterServiceRedisSharded instance1 = new CounterServiceRedisSharded(redisTemplate, "1", 60000);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        instance0.bindTo(registry);
+        for (int i = 0; i < 10; i++) {
+            instance0.incrementCounter();
+            instance1.incrementCounter();
+        }
+
+        assertEquals(20.0, registry.get("loan-calculator.count").gauge().value(), 0.0);
+
+        shardsUnreadable.set(true);
+        assertTrue(Double.isNaN(registry.get("loan-calculator.count").gauge().value()));
+    }
+
+    @Test
+    public void testNoInstanceIndexIsShardZero() {
+        CounterService counterService = new CounterServiceRedisSharded(redisTemplate, null, 60000);
+
+        assertEquals(1L, counterService.incrementCounter());
+        assertTrue(incrementedKeys.contains("loan-calculator:shard:0"));
+    }
+
+    @Test
+    public void testInvalidInstanceIndexIsShardZero() {
+        new CounterServiceRedisSharded(redisTemplate, "not a number", 60000).incrementCounter();
+        new CounterServiceRedisSharded(redisTemplate, "-1", 60000).incrementCounter();
+
+        assertEquals(2L, keys.get("loan-calculator:shard:0").get());
+    }
+
+    @Test
+    public void testFailedRefreshKeepsCounting() throws InterruptedException {
+        CounterServiceRedisSharded instance0 = new CounterServiceRedisSharded(redisTemplate, "0", 0);
+        CounterServiceRedisSharded instance1 = new CounterServiceRedisSharded(redisTemplate, "1", 0);
+        for (int i = 0; i < 10; i++) {
+            instance1.incrementCounter();
+        }
+
+        // the refresh fails in the background, and the count carries on from this shard alone
+        shardsUnreadable.set(true);
+        assertEquals(1L, instance0.incrementCounter());
+        Thread.sleep(100);
+        assertEquals(2L, instance0.incrementCounter());
+
+        // and the next refresh after Redis is back picks up the other shards
+        shardsUnreadable.set(false);
+        Thread.sleep(100);
+        instance0.incrementCounter();
+        Thread.sleep(100);
+        assertEquals(14L, instance0.incrementCounter());
+    }
+}
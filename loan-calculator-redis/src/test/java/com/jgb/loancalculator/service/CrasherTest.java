@@ -0,0 +1,121 @@
+package com.jgb.loancalculator.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class CrasherTest {
+    private Crasher crasher = new Crasher();
+
+    @After
+    public void stopAll() {
+        crasher.stopAll();
+    }
+
+    @Test
+    public void testPaymentLatency() {
+        crasher.addPaymentLatency(50, 60);
+        assertEquals(50L, crasher.paymentLatencyMillis());
+
+        long start = System.nanoTime();
+        crasher.delayPayment();
+        assertTrue(System.nanoTime() - start >= 50_000_000L);
+
+        crasher.stopPaymentLatency();
+        assertEquals(0L, crasher.paymentLatencyMillis());
+    }
+
+    @Test
+    public void testLatencyExpires() throws InterruptedException {
+        crasher.addPaymentLatency(50, 1);
+        Thread.sleep(1100);
+        assertEquals(0L, crasher.paymentLatencyMillis());
+    }
+
+    @Test
+    public void testSlowCounterService() {
+        CounterService counterService = new SlowCounterService(new CounterServiceInMemory(), crasher);
+        crasher.addCounterLatency(50, 60);
+
+        long start = System.nanoTime();
+        assertEquals(1L, counterService.incrementCounter());
+        assertTrue(System.nanoTime() - start >= 50_000_000L);
+    }
+
+    @Test
+    public void testCpuBurn() {
+        crasher.burnCpu(50, 60);
+        assertEquals(50, crasher.status().get("cpuBurnPercent"));
+        assertTrue(burnThreads() > 0);
+
+        crasher.stopCpuBurn();
+        assertEquals(0, crasher.status().get("cpuBurnPercent"));
+        assertEquals(0, burnThreads());
+    }
+
+    @Test
+    public void testHeap() {
+        crasher.fillHeap(8, 60);
+        assertEquals(8, crasher.status().get("heapMegabytes"));
+
+        crasher.releaseHeap();
+        assertEquals(0, crasher.status().get("heapMegabytes"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHeapLargerThanAvailable() {
+        crasher.fillHeap((int) (Runtime.getRuntime().maxMemory() / (1024 * 1024)) + 1, 60);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCpuPercentOutOfRange() {
+        crasher.burnCpu(101, 60);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoDuration() {
+        crasher.addCounterLatency(50, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLatencyAboveMaximum() {
+        crasher.addPaymentLatency(Long.MAX_VALUE, 60);
+    }
+
+    @Test
+    public void testLatencyAtMaximum() {
+        crasher.addCounterLatency(Crasher.MAX_MILLIS, 60);
+        assertEquals(Crasher.MAX_MILLIS, crasher.status().get("counterLatencyMillis"));
+        crasher.stopCounterLatency();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDurationAboveMaximum() {
+        // would overflow System.nanoTime() + seconds in nanos
+        crasher.burnCpu(50, Long.MAX_VALUE / 1_000_000_000L);
+    }
+
+    @Test
+    public void testStopAll() {
+        crasher.addPaymentLatency(50, 60);
+        crasher.addCounterLatency(50, 60);
+        crasher.fillHeap(1, 60);
+
+        crasher.stopAll();
+
+        Map<String, Object> status = crasher.status();
+        assertEquals(0L, status.get("paymentLatencyMillis"));
+        assertEquals(0L, status.get("counterLatencyMillis"));
+        assertEquals(0, status.get("heapMegabytes"));
+    }
+
+    private static long burnThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().startsWith("crasher-cpu-burn-"))
+                .count();
+    }
+}
@@ -1,8 +1,12 @@
 package com.jgb.loancalculator.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -26,4 +30,181 @@ public class PaymentCalculatorTest {
 
         assertEquals(new BigDecimal("500.00"), c);
     }
+
+    @Test
+    public void testBulkCalculatorMatchesSingleCalculator() {
+        PaymentCalculator pc = new PaymentCalculator();
+
+        double[] amounts = {200000.0, 180000.0, 123456.78, 350000.0};
+        double[] rates = {6.5, 0.0, 4.125, 3.875};
+        int[] years = {30, 30, 15, 20};
+        double[] payments = new double[amounts.length];
+
+        pc.calculate(amounts, rates, years, payments);
+
+        for (int i = 0; i < amounts.length; i++) {
+            assertEquals(pc.calculate(amounts[i], rates[i], years[i]).doubleValue(), payments[i], 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBulkCalculatorMismatchedLengths() {
+        PaymentCalculator pc = new PaymentCalculator();
+
+        pc.calculate(new double[2], new double[2], new int[1], new double[2]);
+    }
+
+    @Test
+    public void testAmortizationSchedule() throws IOException {
+        PaymentCalculator pc = new PaymentCalculator();
+        long[] totals = new long[3];
+        long[] lastBalance = new long[1];
+
+        pc.amortize(200000.0, 6.5, 30, (month, payment, principal, interest, balance) -> {
+            assertEquals(payment, principal + interest);
+            if (month == 1) {
+                assertEquals(126414L, payment);
+                assertEquals(108333L, interest);
+            }
+            totals[0]++;
+            totals[1] += principal;
+            totals[2] += interest;
+            lastBalance[0] = balance;
+        });
+
+        assertEquals(360L, totals[0]);
+        assertEquals(20000000L, totals[1]);
+        assertEquals(0L, lastBalance[0]);
+    }
+
+    @Test
+    public void testAmortizationScheduleZeroRate() throws IOException {
+        PaymentCalculator pc = new PaymentCalculator();
+        long[] rows = new long[1];
+
+        pc.amortize(180000.0, 0.0, 30, (month, payment, principal, interest, balance) -> {
+            assertEquals(50000L, payment);
+            assertEquals(0L, interest);
+            assertEquals(18000000L - month * 50000L, balance);
+            rows[0]++;
+        });
+
+        assertEquals(360L, rows[0]);
+    }
+
+    @Test
+    public void testCalculatorWithAnnuityFactorCache() {
+        PaymentCalculator uncached = new PaymentCalculator();
+        PaymentCalculator cached = new PaymentCalculator(new AnnuityFactorCache(16));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(uncached.calculate(200000.0, 6.5, 30), cached.calculate(200000.0, 6.5, 30));
+            assertEquals(uncached.calculate(312500.0, 4.125, 15), cached.calculate(312500.0, 4.125, 15));
+            assertEquals(uncached.calculate(180000.0, 0.0, 30), cached.calculate(180000.0, 0.0, 30));
+        }
+    }
+
+    @Test
+    public void testCalculateCentsMatchesCalculate() {
+        PaymentCalculator pc = new PaymentCalculator();
+
+        assertEquals(126414L, pc.calculateCents(200000.0, 6.5, 30));
+        assertEquals(50000L, pc.calculateCents(180000.0, 0.0, 30));
+
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            double amount = Math.floor((100000.0 + random.nextDouble() * 700000.0) * 100.0) / 100.0;
+            double rate = random.nextInt(7) + random.nextInt(8) / 8.0;
+            int years = 5 + random.nextInt(36);
+            long expected = pc.calculate(amount, rate, years).movePointRight(2).longValueExact();
+            assertEquals(expected, pc.calculateCents(amount, rate, years));
+        }
+    }
+
+    @Test
+    public void testCalculateCentsOnHalfCent() {
+        PaymentCalculator pc = new PaymentCalculator();
+
+        // 45 / 360 is exactly 0.125 so HALF_UP must round it up
+        assertEquals(new BigDecimal("0.13"), pc.calculate(45.0, 0.0, 30));
+        assertEquals(13L, pc.calculateCents(45.0, 0.0, 30));
+    }
+
+    @Test
+    public void testGridMatchesSingleCalculator() {
+        PaymentCalculator pc = new PaymentCalculator();
+
+        // 3.00 to 8.00 in 0.125 steps by 5 to 40 years is large enough to be split across the pool
+        double[] rates = new double[41];
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = 3.0 + i * 0.125;
+        }
+        int[] years = new int[36];
+        for (int i = 0; i < years.length; i++) {
+            years[i] = 5 + i;
+        }
+
+        long[][] grid = pc.calculateGrid(312345.67, rates, years);
+
+        for (int i = 0; i < rates.length; i++) {
+            for (int j = 0; j < years.length; j++) {
+                assertEquals(pc.calculateCents(312345.67, rates[i], years[j]), grid[i][j]);
+            }
+        }
+    }
+
+    @Test
+    public void testGridZeroRate() {
+        PaymentCalculator pc = new PaymentCalculator();
+
+        long[][] grid = pc.calculateGrid(180000.0, new double[] {0.0, 6.5}, new int[] {15, 30});
+
+        assertEquals(100000L, grid[0][0]);
+        assertEquals(50000L, grid[0][1]);
+        assertEquals(113772L, grid[1][1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGridYearsOutOfOrder() {
+        PaymentCalculator pc = new PaymentCalculator();
+
+        pc.calculateGrid(200000.0, new double[] {6.5}, new int[] {30, 15});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAmortizationScheduleZeroYears() throws IOException {
+        PaymentCalculator pc = new PaymentCalculator();
+
+        pc.amortize(180000.0, 6.5, 0, (month, payment, principal, interest, balance) -> {});
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testCalculateCentsZeroYears() {
+        PaymentCalculator pc = new PaymentCalculator();
+
+        pc.calculateCents(200000.0, 6.5, 0);
+    }
+
+    // the payments are more cents than a long holds, though calculate still returns them
+    @Test
+    public void testCalculateCentsTooLarge() {
+        PaymentCalculator pc = new PaymentCalculator();
+
+        for (double[] loan : new double[][] {{1e20, 5.0}, {1e15, 1e9}}) {
+            assertTrue(pc.calculate(loan[0], loan[1], 30).signum() > 0);
+            try {
+                pc.calculateCents(loan[0], loan[1], 30);
+                fail("Expected an ArithmeticException for " + loan[0] + " at " + loan[1] + "%");
+            } catch (ArithmeticException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testCalculateCentsNaN() {
+        PaymentCalculator pc = new PaymentCalculator();
+
+        pc.calculateCents(Double.NaN, 6.5, 30);
+    }
 }
@@ -0,0 +1,99 @@
+package com.jgb.loancalculator;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import springfox.documentation.spring.web.plugins.DocumentationPluginsBootstrapper;
+
+// Shortens the time from JVM start to the first /payment. Every bean is created the first time
+// it is used instead of at startup, and springfox scans the controllers the first time the API
+// docs are asked for (springfox.documentation.auto-startup=false in application-fast-start.properties).
+//
+// Boot 2.1 has no spring.main.lazy-initialization, so the bean definitions are marked lazy here.
+// The AppCDS archive built by the fast-start Maven profile is described in the README.
+@Configuration
+@Profile("fast-start")
+public class FastStartConfig {
+
+    // Post processors run once all bean definitions are registered and before any bean is
+    // created. The method is static only so that this @Configuration class isn't instantiated
+    // early just to supply the post processor
+    @Bean
+    public static BeanFactoryPostProcessor lazyInitBeanFactoryPostProcessor() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                beanFactory.getBeanDefinition(name).setLazyInit(true);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type=Type.SERVLET)
+    public FilterRegistrationBean<OncePerRequestFilter> swaggerScanFilter(ObjectProvider<DocumentationPluginsBootstrapper> bootstrapper) {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            private volatile boolean scanned;
+
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                    throws ServletException, IOException {
+                if (!scanned) {
+                    scan();
+                }
+                filterChain.doFilter(request, response);
+            }
+
+            // the bootstrapper only guards against a second scan, so other requests wait here for the first one
+            private synchronized void scan() {
+                if (!scanned) {
+                    DocumentationPluginsBootstrapper documentation = bootstrapper.getIfAvailable();
+                    if (documentation != null) {
+                        documentation.start();
+                    }
+                    scanned = true;
+                }
+            }
+        });
+        registration.addUrlPatterns("/v2/api-docs", "/swagger-resources/*");
+        return registration;
+    }
+
+    // Used by the fast-start Maven profile to record the classes for the AppCDS archive. Once the
+    // app is up it asks itself for a payment, so that the request path is loaded too, then exits
+    @Bean
+    @ConditionalOnProperty(name="loan-calculator.fast-start.training-run", havingValue="true")
+    public ApplicationListener<ApplicationReadyEvent> trainingRun() {
+        return event -> {
+            String port = event.getApplicationContext().getEnvironment().getProperty("local.server.port");
+            int status;
+            try {
+                HttpURLConnection connection = (HttpURLConnection)
+                        new URL("http://localhost:" + port + "/payment?amount=200000&rate=6.5&years=30").openConnection();
+                status = connection.getResponseCode();
+                connection.getInputStream().close();
+            } catch (IOException e) {
+                throw new IllegalStateException("Training run request to /payment failed", e);
+            }
+            System.exit(SpringApplication.exit(event.getApplicationContext(), () -> status == 200 ? 0 : 1));
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.jgb.loancalculator.http;
+
+// Column oriented so that the arrays can be handed straight to PaymentCalculator.
+// amounts[i], rates[i], and years[i] describe loan i
+public class BatchPaymentRequest {
+    private double[] amounts;
+    private double[] rates;
+    private int[] years;
+
+    public double[] getAmounts() {
+        return amounts;
+    }
+
+    public void setAmounts(double[] amounts) {
+        this.amounts = amounts;
+    }
+
+    public double[] getRates() {
+        return rates;
+    }
+
+    public void setRates(double[] rates) {
+        this.rates = rates;
+    }
+
+    public int[] getYears() {
+        return years;
+    }
+
+    public void setYears(int[] years) {
+        this.years = years;
+    }
+}
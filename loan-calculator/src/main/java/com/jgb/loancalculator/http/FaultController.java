@@ -0,0 +1,113 @@
+package com.jgb.loancalculator.http;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.jgb.loancalculator.service.Crasher;
+
+import io.swagger.annotations.ApiOperation;
+
+// Controlled degradation for performance testing. Each fault switches itself off after the given
+// number of seconds, or can be switched off early
+@RestController
+public class FaultController {
+
+    @Autowired
+    private Crasher crasher;
+
+    @ApiOperation("Show the faults that are currently injected")
+    @CrossOrigin(origins="*")
+    @GetMapping("/fault")
+    public Map<String, Object> status() {
+        return crasher.status();
+    }
+
+    @ApiOperation("Add latency to every /payment")
+    @CrossOrigin(origins="*")
+    @GetMapping("/fault/latency")
+    public String paymentLatency(@RequestParam("millis") long millis,
+            @RequestParam(name="seconds", defaultValue="60") long seconds) {
+        crasher.addPaymentLatency(millis, seconds);
+        return "OK";
+    }
+
+    @ApiOperation("Stop adding latency to /payment")
+    @CrossOrigin(origins="*")
+    @GetMapping("/fault/latency/off")
+    public String paymentLatencyOff() {
+        crasher.stopPaymentLatency();
+        return "OK";
+    }
+
+    @ApiOperation("Add latency to every hit counter call")
+    @CrossOrigin(origins="*")
+    @GetMapping("/fault/counter")
+    public String counterLatency(@RequestParam("millis") long millis,
+            @RequestParam(name="seconds", defaultValue="60") long seconds) {
+        crasher.addCounterLatency(millis, seconds);
+        return "OK";
+    }
+
+    @ApiOperation("Stop adding latency to hit counter calls")
+    @CrossOrigin(origins="*")
+    @GetMapping("/fault/counter/off")
+    public String counterLatencyOff() {
+        crasher.stopCounterLatency();
+        return "OK";
+    }
+
+    @ApiOperation("Keep every core busy for a percentage of the time")
+    @CrossOrigin(origins="*")
+    @GetMapping("/fault/cpu")
+    public String cpuBurn(@RequestParam("percent") int percent,
+            @RequestParam(name="seconds", defaultValue="60") long seconds) {
+        crasher.burnCpu(percent, seconds);
+        return "OK";
+    }
+
+    @ApiOperation("Stop the CPU burn")
+    @CrossOrigin(origins="*")
+    @GetMapping("/fault/cpu/off")
+    public String cpuBurnOff() {
+        crasher.stopCpuBurn();
+        return "OK";
+    }
+
+    @ApiOperation("Hold on to some heap")
+    @CrossOrigin(origins="*")
+    @GetMapping("/fault/heap")
+    public String heap(@RequestParam("megabytes") int megabytes,
+            @RequestParam(name="seconds", defaultValue="60") long seconds) {
+        crasher.fillHeap(megabytes, seconds);
+        return "OK";
+    }
+
+    @ApiOperation("Release the heap held by /fault/heap")
+    @CrossOrigin(origins="*")
+    @GetMapping("/fault/heap/off")
+    public String heapOff() {
+        crasher.releaseHeap();
+        return "OK";
+    }
+
+    @ApiOperation("Switch off every fault")
+    @CrossOrigin(origins="*")
+    @GetMapping("/fault/off")
+    public String off() {
+        crasher.stopAll();
+        return "OK";
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,84 @@
+package com.jgb.loancalculator.http;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+
+public class GridReturnValue {
+    private double amount;
+    private double[] rates;
+    private int[] years;
+    private double[][] payments;
+    private String instance;
+    private Long count;
+
+    private GridReturnValue(Builder builder) {
+        this.amount = builder.amount;
+        this.rates = builder.rates;
+        this.years = builder.years;
+        this.payments = builder.payments;
+        this.count = builder.count;
+        this.instance = InstanceIndex.VALUE;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public double[] getRates() {
+        return rates;
+    }
+
+    public int[] getYears() {
+        return years;
+    }
+
+    // payments[i][j] is the payment at rates[i] over years[j]
+    public double[][] getPayments() {
+        return payments;
+    }
+
+    public String getInstance() {
+        return instance;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    @JsonIgnoreType
+    public static class Builder {
+        private double amount;
+        private double[] rates;
+        private int[] years;
+        private double[][] payments;
+        private Long count;
+
+        public Builder withAmount(double amount) {
+            this.amount = amount;
+            return this;
+        }
+
+        public Builder withRates(double[] rates) {
+            this.rates = rates;
+            return this;
+        }
+
+        public Builder withYears(int[] years) {
+            this.years = years;
+            return this;
+        }
+
+        public Builder withPayments(double[][] payments) {
+            this.payments = payments;
+            return this;
+        }
+
+        public Builder withCount(Long count) {
+            this.count = count;
+            return this;
+        }
+
+        public GridReturnValue build() {
+            return new GridReturnValue(this);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.jgb.loancalculator.http;
+
+// The Cloud Foundry instance index reported with every response, or null when not running on
+// Cloud Foundry. It never changes while the application is running, so it is read once
+public final class InstanceIndex {
+
+    public static final String VALUE = System.getenv("CF_INSTANCE_INDEX");
+
+    private InstanceIndex() {
+    }
+}
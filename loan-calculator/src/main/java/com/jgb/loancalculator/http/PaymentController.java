@@ -1,13 +1,19 @@
 package com.jgb.loancalculator.http;
 
-import java.math.BigDecimal;
+import javax.servlet.http.HttpServletResponse;
 
 import com.jgb.loancalculator.service.CounterService;
+import com.jgb.loancalculator.service.Crasher;
 import com.jgb.loancalculator.service.PaymentCalculator;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -15,6 +21,9 @@ import io.swagger.annotations.ApiOperation;
 
 @RestController
 public class PaymentController {
+
+    // largest rate x term grid served in one request
+    private static final int MAX_GRID_CELLS = 100000;
     
     @Autowired
     private CounterService counterService;
@@ -22,21 +31,134 @@ public class PaymentController {
     @Autowired
     private PaymentCalculator paymentCalculator;
     
+    @Autowired
+    private PaymentStageMetrics stageMetrics;
+
+    @Autowired
+    private Crasher crasher;
+    
     @ApiOperation("Calculate a loan payment")
     @CrossOrigin(origins="*")
     @GetMapping("/payment")
-    public ReturnValue calculatePayment(@RequestParam("amount") double amount,
+    public ResponseEntity<ReturnValue> calculatePayment(@RequestParam("amount") double amount,
             @RequestParam("rate") double rate,
-            @RequestParam("years") int years) {
+            @RequestParam("years") int years,
+            HttpServletResponse response) {
+
+        if (!isValidLoan(amount, rate, years)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
 
-        BigDecimal payment = paymentCalculator.calculate(amount, rate, years);
+        crasher.delayPayment();
+        long start = System.nanoTime();
+        long payment = paymentCalculator.calculateCents(amount, rate, years);
+        long calculated = System.nanoTime();
+        long count = counterService.incrementCounter();
+        long counted = System.nanoTime();
+
+        response.addHeader(PaymentStageMetrics.SERVER_TIMING,
+                stageMetrics.recordRequest(calculated - start, counted - calculated));
         
-        return new ReturnValue.Builder()
+        ReturnValue returnValue = new ReturnValue.Builder()
                 .withAmount(amount)
                 .withRate(rate)
                 .withYears(years)
-                .withPayment(payment)
+                .withPaymentCents(payment)
+                .withCount(count)
+                .build();
+        return new ResponseEntity<>(returnValue, HttpStatus.OK);
+    }
+
+    @ApiOperation("Calculate many loan payments in one request")
+    @CrossOrigin(origins="*")
+    @PostMapping("/payments")
+    public ResponseEntity<BatchReturnValue> calculatePayments(@RequestBody BatchPaymentRequest request) {
+        double[] amounts = request.getAmounts();
+        double[] rates = request.getRates();
+        int[] years = request.getYears();
+
+        if (amounts == null || rates == null || years == null
+                || rates.length != amounts.length || years.length != amounts.length) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        for (int i = 0; i < amounts.length; i++) {
+            if (!isValidLoan(amounts[i], rates[i], years[i])) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        double[] payments = new double[amounts.length];
+        paymentCalculator.calculate(amounts, rates, years, payments);
+
+        BatchReturnValue returnValue = new BatchReturnValue.Builder()
+                .withPayments(payments)
+                .withCount(counterService.incrementCounter())
+                .build();
+        return new ResponseEntity<>(returnValue, HttpStatus.OK);
+    }
+
+    @ApiOperation("Calculate payments for one amount over a range of rates and terms")
+    @CrossOrigin(origins="*")
+    @GetMapping("/payment/grid")
+    public ResponseEntity<GridReturnValue> calculateGrid(@RequestParam("amount") double amount,
+            @RequestParam(name="minRate", defaultValue="3.0") double minRate,
+            @RequestParam(name="maxRate", defaultValue="8.0") double maxRate,
+            @RequestParam(name="rateStep", defaultValue="0.125") double rateStep,
+            @RequestParam(name="minYears", defaultValue="5") int minYears,
+            @RequestParam(name="maxYears", defaultValue="40") int maxYears,
+            @RequestParam(name="yearStep", defaultValue="1") int yearStep) {
+
+        // NaN fails every comparison, so finiteness is checked first
+        if (!Double.isFinite(amount) || !Double.isFinite(minRate) || !Double.isFinite(maxRate) || !Double.isFinite(rateStep)
+                || minRate < 0.0 || maxRate < minRate || rateStep <= 0.0
+                || minYears <= 0 || maxYears < minYears || maxYears > ScheduleController.MAX_YEARS || yearStep <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        // counted in double, so a tiny rateStep can't overflow the cell count. The small
+        // epsilon keeps maxRate in the grid when the step doesn't divide evenly in binary
+        double rateCount = Math.floor((maxRate - minRate) / rateStep + 1e-9) + 1;
+        long yearCount = (maxYears - minYears) / yearStep + 1;
+        if (rateCount * yearCount > MAX_GRID_CELLS) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        double[] rates = new double[(int) rateCount];
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = minRate + i * rateStep;
+        }
+        int[] years = new int[(int) yearCount];
+        for (int i = 0; i < years.length; i++) {
+            years[i] = minYears + i * yearStep;
+        }
+
+        long[][] cents = paymentCalculator.calculateGrid(amount, rates, years);
+        double[][] payments = new double[rates.length][];
+        for (int i = 0; i < rates.length; i++) {
+            payments[i] = new double[years.length];
+            for (int j = 0; j < years.length; j++) {
+                payments[i][j] = cents[i][j] / 100.0;
+            }
+        }
+
+        GridReturnValue returnValue = new GridReturnValue.Builder()
+                .withAmount(amount)
+                .withRates(rates)
+                .withYears(years)
+                .withPayments(payments)
                 .withCount(counterService.incrementCounter())
                 .build();
+        return new ResponseEntity<>(returnValue, HttpStatus.OK);
+    }
+
+    // a payment too large to count in cents - only the loan's inputs can cause it
+    @ExceptionHandler(ArithmeticException.class)
+    public ResponseEntity<String> paymentOutOfRange(ArithmeticException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // a term of zero or less, or an infinite or NaN amount or rate, has no meaningful payment
+    static boolean isValidLoan(double amount, double rate, int years) {
+        return Double.isFinite(amount) && Double.isFinite(rate) && years > 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+package com.jgb.loancalculator.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+// Writes /payment and /payments responses as fixed layout little endian records for clients that
+// send "Accept: application/vnd.loan-calculator.payment-record". JSON is still the default. All
+// money is in whole cents and the instance index is an int, -1 when it is not known.
+//
+// ReturnValue - 40 bytes:
+//   0  double amount
+//   8  double rate
+//   16 int    years
+//   20 int    instance
+//   24 long   payment (cents)
+//   32 long   count
+//
+// BatchReturnValue - 16 bytes plus 8 for each payment:
+//   0  int    number of payments (n)
+//   4  int    instance
+//   8  long   count
+//   16 long[n] payments (cents)
+public class PaymentRecordHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final String APPLICATION_PAYMENT_RECORD_VALUE = "application/vnd.loan-calculator.payment-record";
+    public static final MediaType APPLICATION_PAYMENT_RECORD = MediaType.parseMediaType(APPLICATION_PAYMENT_RECORD_VALUE);
+
+    public static final int RETURN_VALUE_LENGTH = 40;
+    public static final int BATCH_HEADER_LENGTH = 16;
+
+    private final int instance;
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() ->
+            ByteBuffer.allocate(RETURN_VALUE_LENGTH).order(ByteOrder.LITTLE_ENDIAN));
+    private final PaymentStageMetrics stageMetrics;
+
+    public PaymentRecordHttpMessageConverter() {
+        this(InstanceIndex.VALUE);
+    }
+
+    public PaymentRecordHttpMessageConverter(String instance) {
+        this(instance, null);
+    }
+
+    // when stageMetrics is set, the time to format the response is recorded and added as a Server-Timing header
+    public PaymentRecordHttpMessageConverter(String instance, PaymentStageMetrics stageMetrics) {
+        super(APPLICATION_PAYMENT_RECORD);
+        this.instance = instanceIndex(instance);
+        this.stageMetrics = stageMetrics;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ReturnValue.class == clazz || BatchReturnValue.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<? extends Object> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Payment records can only be written", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(Object value, MediaType contentType) {
+        if (value instanceof BatchReturnValue) {
+            return (long) BATCH_HEADER_LENGTH + 8L * ((BatchReturnValue) value).getPayments().length;
+        }
+        return (long) RETURN_VALUE_LENGTH;
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer buffer;
+        if (value instanceof BatchReturnValue) {
+            buffer = write((BatchReturnValue) value);
+        } else {
+            buffer = buffers.get();
+            buffer.clear();
+            write((ReturnValue) value, buffer);
+        }
+
+        if (stageMetrics != null && value instanceof ReturnValue) {
+            // headers are sent with the first write to the body, so this has to happen first
+            outputMessage.getHeaders().add(PaymentStageMetrics.SERVER_TIMING,
+                    stageMetrics.recordSerialization(System.nanoTime() - start));
+        }
+        outputMessage.getBody().write(buffer.array(), 0, buffer.position());
+    }
+
+    void write(ReturnValue value, ByteBuffer buffer) {
+        buffer.putDouble(value.getAmount())
+            .putDouble(value.getRate())
+            .putInt(value.getYears())
+            .putInt(instance)
+            .putLong(value.getPaymentCents())
+            .putLong(value.getCount());
+    }
+
+    ByteBuffer write(BatchReturnValue value) {
+        double[] payments = value.getPayments();
+        ByteBuffer buffer = ByteBuffer.allocate(BATCH_HEADER_LENGTH + 8 * payments.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(payments.length)
+            .putInt(instance)
+            .putLong(value.getCount() == null ? 0L : value.getCount());
+        for (double payment : payments) {
+            // batch payments are already rounded to cents, so this is exact
+            buffer.putLong(Math.round(payment * 100.0));
+        }
+        return buffer;
+    }
+
+    private static int instanceIndex(String instance) {
+        if (instance == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(instance);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
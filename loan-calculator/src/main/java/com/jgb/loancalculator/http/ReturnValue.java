@@ -3,26 +3,32 @@ package com.jgb.loancalculator.http;
 import java.math.BigDecimal;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+@JsonSerialize(using = ReturnValueSerializer.class)
 public class ReturnValue {
     private double amount;
     private double rate;
     private int years;
-    private BigDecimal payment;
+    private long paymentCents;
     private String instance;
-    private Long count;
+    private long count;
     
     private ReturnValue(Builder builder) {
         this.amount = builder.amount;
         this.rate = builder.rate;
         this.years = builder.years;
-        this.payment = builder.payment;
+        this.paymentCents = builder.paymentCents;
         this.count = builder.count;
-        this.instance = System.getenv("CF_INSTANCE_INDEX");
+        this.instance = InstanceIndex.VALUE;
     }
 
     public BigDecimal getPayment() {
-        return payment;
+        return BigDecimal.valueOf(paymentCents, 2);
+    }
+
+    public long getPaymentCents() {
+        return paymentCents;
     }
 
     public String getInstance() {
@@ -41,7 +47,7 @@ public class ReturnValue {
         return years;
     }
 
-    public Long getCount() {
+    public long getCount() {
         return count;
     }
     
@@ -50,8 +56,8 @@ public class ReturnValue {
         private double amount;
         private double rate;
         private int years;
-        private BigDecimal payment;
-        private Long count;
+        private long paymentCents;
+        private long count;
 
         public Builder withAmount(double amount) {
             this.amount = amount;
@@ -69,11 +75,16 @@ public class ReturnValue {
         }
         
         public Builder withPayment(BigDecimal payment) {
-            this.payment = payment;
+            this.paymentCents = payment.setScale(2).unscaledValue().longValueExact();
+            return this;
+        }
+        
+        public Builder withPaymentCents(long paymentCents) {
+            this.paymentCents = paymentCents;
             return this;
         }
         
-        public Builder withCount(Long count) {
+        public Builder withCount(long count) {
             this.count = count;
             return this;
         }
@@ -0,0 +1,177 @@
+package com.jgb.loancalculator.http;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.util.BufferRecyclers;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+// Writes ReturnValue as JSON without going through Jackson. The output is byte for byte the
+// same as ReturnValueSerializer. Each thread formats into its own reusable buffer, and the
+// instance index (the only string field) is encoded once when the converter is created
+public class ReturnValueHttpMessageConverter extends AbstractHttpMessageConverter<ReturnValue> {
+
+    // large enough for the numeric fields with the longest possible numbers
+    private static final int BUFFER_SIZE = 256;
+
+    private static final byte[] AMOUNT = ascii("{\"amount\":");
+    private static final byte[] RATE = ascii(",\"rate\":");
+    private static final byte[] YEARS = ascii(",\"years\":");
+    private static final byte[] PAYMENT = ascii(",\"payment\":");
+    private static final byte[] MIN_LONG = ascii(Long.toString(Long.MIN_VALUE));
+
+    private final byte[] instanceField;
+    private final ThreadLocal<byte[]> buffers;
+    private final PaymentStageMetrics stageMetrics;
+
+    public ReturnValueHttpMessageConverter() {
+        this(InstanceIndex.VALUE);
+    }
+
+    public ReturnValueHttpMessageConverter(String instance) {
+        this(instance, null);
+    }
+
+    // when stageMetrics is set, the time to format the response is recorded and added as a Server-Timing header
+    public ReturnValueHttpMessageConverter(String instance, PaymentStageMetrics stageMetrics) {
+        super(MediaType.APPLICATION_JSON_UTF8, MediaType.APPLICATION_JSON);
+        this.stageMetrics = stageMetrics;
+        String encoded = instance == null ? "null"
+                : '"' + new String(BufferRecyclers.getJsonStringEncoder().quoteAsString(instance)) + '"';
+        instanceField = (",\"instance\":" + encoded + ",\"count\":").getBytes(StandardCharsets.UTF_8);
+        int bufferSize = BUFFER_SIZE + instanceField.length;
+        buffers = ThreadLocal.withInitial(() -> new byte[bufferSize]);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ReturnValue.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ReturnValue readInternal(Class<? extends ReturnValue> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ReturnValue can only be written", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ReturnValue value, HttpOutputMessage outputMessage) throws IOException {
+        long start = System.nanoTime();
+        byte[] buffer = buffers.get();
+        int length = write(value, buffer);
+        if (stageMetrics != null) {
+            // headers are sent with the first write to the body, so this has to happen first
+            outputMessage.getHeaders().add(PaymentStageMetrics.SERVER_TIMING,
+                    stageMetrics.recordSerialization(System.nanoTime() - start));
+        }
+        outputMessage.getBody().write(buffer, 0, length);
+    }
+
+    @Override
+    protected Long getContentLength(ReturnValue value, MediaType contentType) {
+        return null;
+    }
+
+    // formats the value into the buffer and returns the number of bytes written
+    int write(ReturnValue value, byte[] buffer) {
+        int position = put(buffer, 0, AMOUNT);
+        position = putDouble(buffer, position, value.getAmount());
+        position = put(buffer, position, RATE);
+        position = putDouble(buffer, position, value.getRate());
+        position = put(buffer, position, YEARS);
+        position = putLong(buffer, position, value.getYears());
+        position = put(buffer, position, PAYMENT);
+        position = putCents(buffer, position, value.getPaymentCents());
+        position = put(buffer, position, instanceField);
+        position = putLong(buffer, position, value.getCount());
+        buffer[position++] = '}';
+        return position;
+    }
+
+    private static int put(byte[] buffer, int position, byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    // Jackson writes doubles with Double.toString, quoting NaN and the infinities. Whole numbers
+    // below 10^7 come out as digits followed by ".0", which can be written directly
+    private static int putDouble(byte[] buffer, int position, double d) {
+        long whole = (long) d;
+        if (whole == d && Math.abs(whole) < 10_000_000L && !(whole == 0 && 1.0 / d < 0)) {
+            position = putLong(buffer, position, whole);
+            buffer[position++] = '.';
+            buffer[position++] = '0';
+            return position;
+        }
+
+        boolean quoted = Double.isNaN(d) || Double.isInfinite(d);
+        if (quoted) {
+            buffer[position++] = '"';
+        }
+        String s = Double.toString(d);
+        for (int i = 0; i < s.length(); i++) {
+            buffer[position++] = (byte) s.charAt(i);
+        }
+        if (quoted) {
+            buffer[position++] = '"';
+        }
+        return position;
+    }
+
+    private static int putLong(byte[] buffer, int position, long value) {
+        if (value == Long.MIN_VALUE) {
+            return put(buffer, position, MIN_LONG);
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+
+        int end = position + digits(value);
+        int i = end;
+        do {
+            buffer[--i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        return end;
+    }
+
+    // same format as ReturnValueSerializer.writeCents - 126414 is written as 1264.14
+    private static int putCents(byte[] buffer, int position, long cents) {
+        if (cents < 0) {
+            buffer[position++] = '-';
+            cents = -cents;
+        }
+        position = putLong(buffer, position, cents / 100);
+        buffer[position++] = '.';
+        buffer[position++] = (byte) ('0' + cents % 100 / 10);
+        buffer[position++] = (byte) ('0' + cents % 10);
+        return position;
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private static byte[] ascii(String s) {
+        byte[] bytes = new byte[s.length()];
+        for (int i = 0; i < s.length(); i++) {
+            bytes[i] = (byte) s.charAt(i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,52 @@
+package com.jgb.loancalculator.http;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+// Writes the same JSON that bean serialization would, but writes the payment straight
+// from the cents value so that no BigDecimal is created on the response path
+public class ReturnValueSerializer extends StdSerializer<ReturnValue> {
+    private static final long serialVersionUID = 1L;
+
+    public ReturnValueSerializer() {
+        super(ReturnValue.class);
+    }
+
+    @Override
+    public void serialize(ReturnValue value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("amount", value.getAmount());
+        gen.writeNumberField("rate", value.getRate());
+        gen.writeNumberField("years", value.getYears());
+        gen.writeFieldName("payment");
+        writeCents(gen, value.getPaymentCents());
+        gen.writeStringField("instance", value.getInstance());
+        gen.writeNumberField("count", value.getCount());
+        gen.writeEndObject();
+    }
+
+    // writes cents as a number with exactly two decimal places - 126414 is written as 1264.14
+    static void writeCents(JsonGenerator gen, long cents) throws IOException {
+        char[] buffer = new char[21];
+        int position = buffer.length;
+        long remaining = Math.abs(cents);
+
+        buffer[--position] = (char) ('0' + remaining % 10);
+        remaining /= 10;
+        buffer[--position] = (char) ('0' + remaining % 10);
+        remaining /= 10;
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (cents < 0) {
+            buffer[--position] = '-';
+        }
+
+        gen.writeRawValue(buffer, position, buffer.length - position);
+    }
+}
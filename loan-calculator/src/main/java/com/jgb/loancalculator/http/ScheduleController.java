@@ -0,0 +1,73 @@
+package com.jgb.loancalculator.http;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jgb.loancalculator.service.PaymentCalculator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.swagger.annotations.ApiOperation;
+
+@RestController
+public class ScheduleController {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    // one row per month, so this caps a schedule at 600 rows
+    public static final int MAX_YEARS = 50;
+    // more than any real loan, and few enough cents for a long
+    public static final double MAX_AMOUNT = 1e15;
+
+    @Autowired
+    private PaymentCalculator paymentCalculator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // each row is written to the response as soon as it is calculated - one JSON object per line
+    @ApiOperation("Stream the month by month amortization schedule for a loan as newline delimited JSON")
+    @CrossOrigin(origins="*")
+    @GetMapping(path="/payment/schedule", produces=APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> schedule(@RequestParam("amount") double amount,
+            @RequestParam("rate") double rate,
+            @RequestParam("years") int years) {
+
+        if (!Double.isFinite(amount) || !Double.isFinite(rate) || years <= 0 || years > MAX_YEARS
+                || Math.abs(amount) > MAX_AMOUNT) {
+            return ResponseEntity.badRequest().build();
+        }
+        // amortize works out the payment again, but a failure there would come after the 200
+        try {
+            paymentCalculator.calculateCents(amount, rate, years);
+        } catch (ArithmeticException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                generator.setRootValueSeparator(null);
+                paymentCalculator.amortize(amount, rate, years, (month, payment, principal, interest, balance) -> {
+                    generator.writeStartObject();
+                    generator.writeNumberField("month", month);
+                    generator.writeNumberField("payment", payment / 100.0);
+                    generator.writeNumberField("principal", principal / 100.0);
+                    generator.writeNumberField("interest", interest / 100.0);
+                    generator.writeNumberField("balance", balance / 100.0);
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+}
@@ -0,0 +1,10 @@
+package com.jgb.loancalculator.service;
+
+import java.io.IOException;
+
+// receives the rows of an amortization schedule one at a time, so the caller
+// never has to hold the whole schedule in memory. All values are in cents
+@FunctionalInterface
+public interface AmortizationRowHandler {
+    void handleRow(int month, long payment, long principal, long interest, long balance) throws IOException;
+}
@@ -1,14 +1,236 @@
 package com.jgb.loancalculator.service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 public class Crasher {
+    private static final int MEGABYTE = 1024 * 1024;
+
+    // longest a fault can be switched on for - keeps the end time well clear of nanoTime overflow
+    public static final long MAX_SECONDS = TimeUnit.DAYS.toSeconds(1);
+    // longest delay a latency fault adds to each call. A request already sleeping is not woken
+    // when the fault is switched off, so this also bounds how long one can stay stuck
+    public static final long MAX_MILLIS = TimeUnit.SECONDS.toMillis(MAX_SECONDS);
+
+    // the CPU burn works in slices of this length - busy for the requested percent of each slice,
+    // idle for the rest. Long enough that even the 1% idle time of a 99% burn is a real park
+    private static final long CPU_BURN_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
     private ScheduledExecutorService executer = Executors.newScheduledThreadPool(1);
+
+    private volatile Latency paymentLatency = Latency.NONE;
+    private volatile Latency counterLatency = Latency.NONE;
+    private CpuBurn cpuBurn;
+    private byte[][] heapBallast;
+    private ScheduledFuture<?> heapRelease;
     
     // calls System.exit after a 2 second delay
     public void crashIt() {
         executer.schedule(() -> System.exit(22), 2000, TimeUnit.MILLISECONDS);
     }
+
+    // adds a fixed delay to every /payment for the given number of seconds
+    public void addPaymentLatency(long millis, long seconds) {
+        paymentLatency = Latency.of(millis, seconds);
+    }
+
+    public void stopPaymentLatency() {
+        paymentLatency = Latency.NONE;
+    }
+
+    // the delay to add to a /payment right now, or 0 when there isn't one
+    public long paymentLatencyMillis() {
+        return paymentLatency.currentMillis();
+    }
+
+    public void delayPayment() {
+        sleep(paymentLatency.currentMillis());
+    }
+
+    // adds a fixed delay to every CounterService call for the given number of seconds
+    public void addCounterLatency(long millis, long seconds) {
+        counterLatency = Latency.of(millis, seconds);
+    }
+
+    public void stopCounterLatency() {
+        counterLatency = Latency.NONE;
+    }
+
+    // the delay to add to a counter call right now, or 0 when there isn't one
+    public long counterLatencyMillis() {
+        return counterLatency.currentMillis();
+    }
+
+    public void delayCounter() {
+        sleep(counterLatency.currentMillis());
+    }
+
+    // keeps every core busy for the given percent of the time. Replaces any burn already running
+    public synchronized void burnCpu(int percent, long seconds) {
+        if (percent < 1 || percent > 100) {
+            throw new IllegalArgumentException("percent must be between 1 and 100");
+        }
+        checkSeconds(seconds);
+
+        stopCpuBurn();
+        cpuBurn = new CpuBurn(percent, System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds));
+        cpuBurn.start();
+    }
+
+    public synchronized void stopCpuBurn() {
+        if (cpuBurn != null) {
+            cpuBurn.stop();
+            cpuBurn = null;
+        }
+    }
+
+    // holds on to the given amount of heap for the given number of seconds. Replaces any allocation already held
+    public synchronized void fillHeap(int megabytes, long seconds) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("megabytes must be greater than zero");
+        }
+        checkSeconds(seconds);
+
+        releaseHeap();
+        Runtime runtime = Runtime.getRuntime();
+        long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        if ((long) megabytes * MEGABYTE > available * 9 / 10) {
+            throw new IllegalArgumentException("Only " + available / MEGABYTE + " MB of heap is available");
+        }
+
+        byte[][] ballast = new byte[megabytes][];
+        for (int i = 0; i < megabytes; i++) {
+            ballast[i] = new byte[MEGABYTE];
+        }
+        heapBallast = ballast;
+        heapRelease = executer.schedule(this::releaseHeap, seconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void releaseHeap() {
+        heapBallast = null;
+        if (heapRelease != null) {
+            heapRelease.cancel(false);
+            heapRelease = null;
+        }
+    }
+
+    public void stopAll() {
+        stopPaymentLatency();
+        stopCounterLatency();
+        stopCpuBurn();
+        releaseHeap();
+    }
+
+    // what is currently injected - zero when a fault is off or has expired
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("paymentLatencyMillis", paymentLatency.currentMillis());
+        status.put("counterLatencyMillis", counterLatency.currentMillis());
+        status.put("cpuBurnPercent", cpuBurn == null || cpuBurn.isExpired() ? 0 : cpuBurn.percent);
+        status.put("heapMegabytes", heapBallast == null ? 0 : heapBallast.length);
+        return status;
+    }
+
+    private static void sleep(long millis) {
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void checkSeconds(long seconds) {
+        if (seconds < 1 || seconds > MAX_SECONDS) {
+            throw new IllegalArgumentException("seconds must be between 1 and " + MAX_SECONDS);
+        }
+    }
+
+    // immutable so that the delay and its end time are always read together
+    private static class Latency {
+        private static final Latency NONE = new Latency(0, 0);
+
+        private final long millis;
+        private final long until;
+
+        private Latency(long millis, long until) {
+            this.millis = millis;
+            this.until = until;
+        }
+
+        private static Latency of(long millis, long seconds) {
+            if (millis < 1 || millis > MAX_MILLIS) {
+                throw new IllegalArgumentException("millis must be between 1 and " + MAX_MILLIS);
+            }
+            checkSeconds(seconds);
+            return new Latency(millis, System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds));
+        }
+
+        private long currentMillis() {
+            return millis > 0 && System.nanoTime() - until < 0 ? millis : 0;
+        }
+    }
+
+    private static class CpuBurn {
+        private final int percent;
+        private final long until;
+        private final List<Thread> threads = new ArrayList<>();
+        private volatile boolean stopped;
+
+        private CpuBurn(int percent, long until) {
+            this.percent = percent;
+            this.until = until;
+        }
+
+        private void start() {
+            long busyNanos = CPU_BURN_SLICE_NANOS * percent / 100;
+            for (int i = 0; i < Runtime.getRuntime().availableProcessors(); i++) {
+                Thread thread = new Thread(() -> burn(busyNanos), "crasher-cpu-burn-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+        }
+
+        private void burn(long busyNanos) {
+            while (!stopped && !isExpired()) {
+                long sliceStart = System.nanoTime();
+                while (System.nanoTime() - sliceStart < busyNanos) {
+                    // spin
+                }
+                // parkNanos rather than Thread.sleep, which would truncate idle times under 1ms
+                // to nothing. Park can return early, so park again until the slice is over
+                long sliceEnd = sliceStart + CPU_BURN_SLICE_NANOS;
+                long idle;
+                while (!stopped && (idle = sliceEnd - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(idle);
+                }
+            }
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - until >= 0;
+        }
+
+        private void stop() {
+            stopped = true;
+            for (Thread thread : threads) {
+                LockSupport.unpark(thread);
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
 }
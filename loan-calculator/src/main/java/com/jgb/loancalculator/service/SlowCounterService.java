@@ -0,0 +1,32 @@
+package com.jgb.loancalculator.service;
+
+// Wraps the real CounterService so that Crasher can slow down counter calls. close() is passed
+// on so Spring still closes a counter that holds resources, such as CounterServiceMappedFile
+public class SlowCounterService implements CounterService, AutoCloseable {
+    private final CounterService counterService;
+    private final Crasher crasher;
+
+    public SlowCounterService(CounterService counterService, Crasher crasher) {
+        this.counterService = counterService;
+        this.crasher = crasher;
+    }
+
+    @Override
+    public long incrementCounter() {
+        crasher.delayCounter();
+        return counterService.incrementCounter();
+    }
+
+    @Override
+    public void resetCount() {
+        crasher.delayCounter();
+        counterService.resetCount();
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (counterService instanceof AutoCloseable) {
+            ((AutoCloseable) counterService).close();
+        }
+    }
+}
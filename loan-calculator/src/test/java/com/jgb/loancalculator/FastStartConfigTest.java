@@ -0,0 +1,40 @@
+package com.jgb.loancalculator;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.core.Is.*;
+import static org.hamcrest.core.IsNull.*;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("fast-start")
+public class FastStartConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testPayment() throws Exception {
+        mockMvc.perform(get("/payment?amount=200000&rate=6.5&years=30"))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(jsonPath("$.payment", is(1264.14)));
+    }
+
+    @Test
+    public void testApiDocsAreScannedOnFirstRequest() throws Exception {
+        mockMvc.perform(get("/v2/api-docs"))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(jsonPath("$.paths['/payment']", is(notNullValue())));
+    }
+}
@@ -0,0 +1,38 @@
+package com.jgb.loancalculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// a real server, because the registry is created while it starts - before the payment calculator
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment=WebEnvironment.RANDOM_PORT, properties="loan-calculator.payment-cache.enabled=true")
+public class PaymentCacheConfigTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testCacheMetricsArePublished() {
+        for (int i = 0; i < 2; i++) {
+            assertEquals(HttpStatus.OK, restTemplate.getForEntity("/payment?amount=200000&rate=6.5&years=30", String.class).getStatusCode());
+        }
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "paymentQuotes").tag("result", "hit").functionCounter().count(), 0.0);
+        assertNotNull(meterRegistry.get("cache.hit.ratio").tag("cache", "paymentQuotes").gauge());
+        assertNotNull(meterRegistry.get("cache.memory.estimated").tag("cache", "paymentQuotes").gauge());
+    }
+}
@@ -0,0 +1,50 @@
+package com.jgb.loancalculator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jgb.loancalculator.http.ReturnValue;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReturnValueBenchmark {
+    private double amount = 200000.0;
+    private double rate = 6.5;
+    private int years = 30;
+    private long paymentCents = 126414L;
+    private long count = 5001L;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+    private ReturnValue returnValue = build();
+
+    @Benchmark
+    public ReturnValue build() {
+        return new ReturnValue.Builder()
+                .withAmount(amount)
+                .withRate(rate)
+                .withYears(years)
+                .withPaymentCents(paymentCents)
+                .withCount(count)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(returnValue);
+    }
+}
@@ -0,0 +1,89 @@
+package com.jgb.loancalculator.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.jgb.loancalculator.http.PaymentRecordHttpMessageConverter;
+import com.jgb.loancalculator.http.ReturnValue;
+import com.jgb.loancalculator.http.ReturnValueHttpMessageConverter;
+
+// Compares the default Jackson message converter with ReturnValueHttpMessageConverter and the
+// binary PaymentRecordHttpMessageConverter writing a /payment response
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReturnValueConverterBenchmark {
+    private MappingJackson2HttpMessageConverter jacksonConverter = new MappingJackson2HttpMessageConverter();
+    private ReturnValueHttpMessageConverter returnValueConverter = new ReturnValueHttpMessageConverter();
+    private PaymentRecordHttpMessageConverter paymentRecordConverter = new PaymentRecordHttpMessageConverter();
+    private ReusableOutputMessage outputMessage = new ReusableOutputMessage();
+
+    private ReturnValue returnValue = new ReturnValue.Builder()
+            .withAmount(200000.0)
+            .withRate(6.5)
+            .withYears(30)
+            .withPaymentCents(126414L)
+            .withCount(5001L)
+            .build();
+
+    @Benchmark
+    public int jackson() throws IOException {
+        outputMessage.reset();
+        jacksonConverter.write(returnValue, MediaType.APPLICATION_JSON_UTF8, outputMessage);
+        return outputMessage.body.size();
+    }
+
+    @Benchmark
+    public int handWritten() throws IOException {
+        outputMessage.reset();
+        returnValueConverter.write(returnValue, MediaType.APPLICATION_JSON_UTF8, outputMessage);
+        return outputMessage.body.size();
+    }
+
+    @Benchmark
+    public int paymentRecord() throws IOException {
+        outputMessage.reset();
+        paymentRecordConverter.write(returnValue, PaymentRecordHttpMessageConverter.APPLICATION_PAYMENT_RECORD, outputMessage);
+        return outputMessage.body.size();
+    }
+
+    // keeps the body buffer between invocations so the benchmark measures the converters, not the output
+    private static class ReusableOutputMessage implements HttpOutputMessage {
+        private ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        private HttpHeaders headers;
+
+        private void reset() {
+            body.reset();
+            headers = new HttpHeaders();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+    }
+}
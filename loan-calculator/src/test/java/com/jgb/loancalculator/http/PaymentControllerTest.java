@@ -5,6 +5,13 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.core.Is.*;
 import static org.hamcrest.core.IsNull.*;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -16,6 +23,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.context.WebApplicationContext;
 
 @RunWith(SpringRunner.class)
@@ -92,4 +100,241 @@ public class PaymentControllerTest {
         .andExpect(jsonPath("$.instance", is(nullValue())))
         .andExpect(jsonPath("$.count", is(2)));
     }
+
+    @Test
+    public void testInvalidLoan() throws Exception {
+        mockMvc.perform(get("/payment?amount=200000&rate=6.5&years=0"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+
+        mockMvc.perform(get("/payment?amount=NaN&rate=6.5&years=30"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+
+        mockMvc.perform(get("/payment?amount=200000&rate=Infinity&years=30"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    @Test
+    public void testBatchPayments() throws Exception {
+        mockMvc.perform(get("/resetCount")).andExpect(status().is(HttpStatus.OK.value()));
+
+        mockMvc.perform(post("/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amounts\":[180000,200000],\"rates\":[0,6.5],\"years\":[30,30]}"))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+        .andExpect(jsonPath("$.payments[0]", is(500.0)))
+        .andExpect(jsonPath("$.payments[1]", is(1264.14)))
+        .andExpect(jsonPath("$.instance", is(nullValue())))
+        .andExpect(jsonPath("$.count", is(1)));
+    }
+
+    @Test
+    public void testBatchPaymentsMismatchedLengths() throws Exception {
+        mockMvc.perform(post("/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amounts\":[180000,200000],\"rates\":[0],\"years\":[30,30]}"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    @Test
+    public void testBatchPaymentsInvalidTuple() throws Exception {
+        mockMvc.perform(post("/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amounts\":[180000,200000],\"rates\":[0,6.5],\"years\":[30,0]}"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+
+        mockMvc.perform(post("/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amounts\":[180000],\"rates\":[0],\"years\":[-5]}"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+
+        // 1e400 overflows to Infinity when read as a double
+        mockMvc.perform(post("/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amounts\":[1e400],\"rates\":[6.5],\"years\":[30]}"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    @Test
+    public void testGrid() throws Exception {
+        mockMvc.perform(get("/resetCount")).andExpect(status().is(HttpStatus.OK.value()));
+
+        mockMvc.perform(get("/payment/grid?amount=180000&minRate=0&maxRate=6.5&rateStep=6.5&minYears=15&maxYears=30&yearStep=15"))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8))
+        .andExpect(jsonPath("$.rates", contains(0.0, 6.5)))
+        .andExpect(jsonPath("$.years", contains(15, 30)))
+        .andExpect(jsonPath("$.payments[0]", contains(1000.0, 500.0)))
+        .andExpect(jsonPath("$.payments[1][1]", is(1137.72)))
+        .andExpect(jsonPath("$.count", is(1)));
+    }
+
+    @Test
+    public void testDefaultGrid() throws Exception {
+        // 3.00 to 8.00 in 0.125 steps by 5 to 40 years
+        mockMvc.perform(get("/payment/grid?amount=200000"))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(jsonPath("$.rates.length()", is(41)))
+        .andExpect(jsonPath("$.rates[40]", is(8.0)))
+        .andExpect(jsonPath("$.years.length()", is(36)))
+        .andExpect(jsonPath("$.payments.length()", is(41)))
+        .andExpect(jsonPath("$.payments[0].length()", is(36)));
+    }
+
+    @Test
+    public void testGridTooLarge() throws Exception {
+        mockMvc.perform(get("/payment/grid?amount=200000&minRate=0&maxRate=100&rateStep=0.001"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+        // would overflow a long cell count
+        mockMvc.perform(get("/payment/grid?amount=200000&minRate=0&maxRate=100&rateStep=1e-300"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    @Test
+    public void testPaymentTooLarge() throws Exception {
+        mockMvc.perform(get("/payment?amount=1e20&rate=5&years=30"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+        mockMvc.perform(get("/payment?amount=1e15&rate=1e9&years=30"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+        mockMvc.perform(get("/payment/grid?amount=1e20"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+        mockMvc.perform(post("/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amounts\":[180000,1e20],\"rates\":[0,5],\"years\":[30,30]}"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    @Test
+    public void testGridTermTooLong() throws Exception {
+        mockMvc.perform(get("/payment/grid?amount=200000&minYears=50&maxYears=50"))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(jsonPath("$.years", contains(50)));
+        // few cells, but one multiply per year of the longest term
+        mockMvc.perform(get("/payment/grid?amount=200000&minYears=1&maxYears=2000000000&yearStep=999999999"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+        mockMvc.perform(get("/payment/grid?amount=200000&minYears=5&maxYears=51"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    @Test
+    public void testGridNonFiniteInputs() throws Exception {
+        mockMvc.perform(get("/payment/grid?amount=200000&minRate=NaN"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+        mockMvc.perform(get("/payment/grid?amount=200000&maxRate=Infinity"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+        mockMvc.perform(get("/payment/grid?amount=200000&rateStep=NaN"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+        mockMvc.perform(get("/payment/grid?amount=NaN"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    @Test
+    public void testPaymentRecord() throws Exception {
+        mockMvc.perform(get("/resetCount")).andExpect(status().is(HttpStatus.OK.value()));
+
+        MvcResult result = mockMvc.perform(get("/payment?amount=200000&rate=6.5&years=30")
+                .accept(PaymentRecordHttpMessageConverter.APPLICATION_PAYMENT_RECORD))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(content().contentType(PaymentRecordHttpMessageConverter.APPLICATION_PAYMENT_RECORD))
+        .andReturn();
+
+        ByteBuffer buffer = ByteBuffer.wrap(result.getResponse().getContentAsByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(buffer.remaining(), is(40));
+        assertThat(buffer.getLong(24), is(126414L));
+        assertThat(buffer.getLong(32), is(1L));
+    }
+
+    @Test
+    public void testBatchPaymentRecords() throws Exception {
+        MvcResult result = mockMvc.perform(post("/payments")
+                .accept(PaymentRecordHttpMessageConverter.APPLICATION_PAYMENT_RECORD)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amounts\":[180000,200000],\"rates\":[0,6.5],\"years\":[30,30]}"))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(content().contentType(PaymentRecordHttpMessageConverter.APPLICATION_PAYMENT_RECORD))
+        .andReturn();
+
+        ByteBuffer buffer = ByteBuffer.wrap(result.getResponse().getContentAsByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(buffer.remaining(), is(32));
+        assertThat(buffer.getInt(0), is(2));
+        assertThat(buffer.getLong(16), is(50000L));
+        assertThat(buffer.getLong(24), is(126414L));
+    }
+
+    @Test
+    public void testJsonIsDefault() throws Exception {
+        mockMvc.perform(get("/payment?amount=200000&rate=6.5&years=30").accept(MediaType.ALL))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8));
+
+        mockMvc.perform(post("/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amounts\":[180000],\"rates\":[0],\"years\":[30]}"))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8));
+    }
+
+    @Test
+    public void testSchedule() throws Exception {
+        MvcResult result = mockMvc.perform(get("/payment/schedule?amount=180000&rate=0&years=30"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(content().contentType(ScheduleController.APPLICATION_NDJSON_VALUE))
+        .andReturn().getResponse().getContentAsString();
+
+        String[] rows = body.split("\n");
+        assertThat(rows.length, is(360));
+        assertThat(rows[0], is("{\"month\":1,\"payment\":500.0,\"principal\":500.0,\"interest\":0.0,\"balance\":179500.0}"));
+        assertThat(rows[359], is("{\"month\":360,\"payment\":500.0,\"principal\":500.0,\"interest\":0.0,\"balance\":0.0}"));
+    }
+
+    @Test
+    public void testScheduleYearsOutOfRange() throws Exception {
+        mockMvc.perform(get("/payment/schedule?amount=180000&rate=0&years=0"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+
+        mockMvc.perform(get("/payment/schedule?amount=180000&rate=6.5&years=51"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+
+        mockMvc.perform(get("/payment/schedule?amount=NaN&rate=6.5&years=30"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    // rejected before the stream starts, since the amount or the payment has too many cents for a long
+    @Test
+    public void testScheduleTooLarge() throws Exception {
+        mockMvc.perform(get("/payment/schedule?amount=1e20&rate=5&years=30"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+
+        mockMvc.perform(get("/payment/schedule?amount=1e17&rate=0.5&years=30"))
+        .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    @Test
+    public void testAnnuityFactorCacheMetrics() throws Exception {
+        mockMvc.perform(get("/payment?amount=200000&rate=6.5&years=30"))
+        .andExpect(status().is(HttpStatus.OK.value()));
+
+        mockMvc.perform(get("/actuator/metrics/cache.gets?tag=cache:annuityFactors"))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(jsonPath("$.name", is("cache.gets")));
+    }
+
+    @Test
+    public void testServerTiming() throws Exception {
+        List<String> serverTiming = mockMvc.perform(get("/payment?amount=200000&rate=6.5&years=30"))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andReturn().getResponse().getHeaders(PaymentStageMetrics.SERVER_TIMING);
+
+        assertThat(serverTiming.size(), is(2));
+        assertTrue(serverTiming.get(0).matches("calculate;dur=\\d+\\.\\d{3}, counter;dur=\\d+\\.\\d{3}"));
+        assertTrue(serverTiming.get(1).matches("serialize;dur=\\d+\\.\\d{3}"));
+
+        mockMvc.perform(get("/actuator/metrics/payment.stage?tag=stage:counter"))
+        .andExpect(status().is(HttpStatus.OK.value()))
+        .andExpect(jsonPath("$.name", is("payment.stage")));
+    }
 }
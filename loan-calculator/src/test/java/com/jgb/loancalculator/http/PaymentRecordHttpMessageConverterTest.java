@@ -0,0 +1,62 @@
+package com.jgb.loancalculator.http;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+public class PaymentRecordHttpMessageConverterTest {
+
+    @Test
+    public void testReturnValueLayout() throws Exception {
+        PaymentRecordHttpMessageConverter converter = new PaymentRecordHttpMessageConverter("3");
+        ReturnValue returnValue = new ReturnValue.Builder()
+                .withAmount(200000.0)
+                .withRate(6.5)
+                .withYears(30)
+                .withPaymentCents(126414L)
+                .withCount(5001L)
+                .build();
+
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(returnValue, null, outputMessage);
+
+        assertEquals(PaymentRecordHttpMessageConverter.APPLICATION_PAYMENT_RECORD, outputMessage.getHeaders().getContentType());
+        assertEquals(40L, outputMessage.getHeaders().getContentLength());
+
+        ByteBuffer buffer = ByteBuffer.wrap(outputMessage.getBodyAsBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(40, buffer.remaining());
+        assertEquals(200000.0, buffer.getDouble(), 0.0);
+        assertEquals(6.5, buffer.getDouble(), 0.0);
+        assertEquals(30, buffer.getInt());
+        assertEquals(3, buffer.getInt());
+        assertEquals(126414L, buffer.getLong());
+        assertEquals(5001L, buffer.getLong());
+    }
+
+    @Test
+    public void testBatchLayout() throws Exception {
+        PaymentRecordHttpMessageConverter converter = new PaymentRecordHttpMessageConverter(null);
+        BatchReturnValue returnValue = new BatchReturnValue.Builder()
+                .withPayments(new double[] {500.0, 1264.14, 0.07})
+                .withCount(2L)
+                .build();
+
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(returnValue, null, outputMessage);
+
+        assertEquals(40L, outputMessage.getHeaders().getContentLength());
+
+        ByteBuffer buffer = ByteBuffer.wrap(outputMessage.getBodyAsBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(40, buffer.remaining());
+        assertEquals(3, buffer.getInt());
+        assertEquals(-1, buffer.getInt());
+        assertEquals(2L, buffer.getLong());
+        assertEquals(50000L, buffer.getLong());
+        assertEquals(126414L, buffer.getLong());
+        assertEquals(7L, buffer.getLong());
+    }
+}
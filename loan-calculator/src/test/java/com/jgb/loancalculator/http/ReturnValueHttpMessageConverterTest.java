@@ -0,0 +1,74 @@
+package com.jgb.loancalculator.http;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ReturnValueHttpMessageConverterTest {
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testMatchesJackson() throws Exception {
+        ReturnValueHttpMessageConverter converter = new ReturnValueHttpMessageConverter(null);
+
+        assertMatchesJackson(converter, returnValue(200000.0, 6.5, 30, 126414L, 1L));
+        assertMatchesJackson(converter, returnValue(180000.0, 0.0, 30, 50000L, 5001L));
+        assertMatchesJackson(converter, returnValue(0.0, -0.0, 0, 0L, 0L));
+        assertMatchesJackson(converter, returnValue(123456.78, 4.125, 15, 5L, Long.MAX_VALUE));
+        assertMatchesJackson(converter, returnValue(1.0E7, 1.0E-4, -1, -1234L, -7L));
+        assertMatchesJackson(converter, returnValue(Double.NaN, Double.POSITIVE_INFINITY, Integer.MIN_VALUE, 7L, Long.MIN_VALUE));
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            double amount = Math.floor((100000.0 + random.nextDouble() * 700000.0) * 100.0) / 100.0;
+            double rate = random.nextInt(7) + random.nextInt(8) / 8.0;
+            assertMatchesJackson(converter, returnValue(amount, rate, 5 + random.nextInt(36),
+                    random.nextInt(1000000), random.nextInt(Integer.MAX_VALUE)));
+        }
+    }
+
+    @Test
+    public void testInstance() throws Exception {
+        ReturnValueHttpMessageConverter converter = new ReturnValueHttpMessageConverter("3");
+
+        String jackson = objectMapper.writeValueAsString(returnValue(200000.0, 6.5, 30, 126414L, 1L));
+        assertEquals(jackson.replace("\"instance\":null", "\"instance\":\"3\""),
+                write(converter, returnValue(200000.0, 6.5, 30, 126414L, 1L)));
+    }
+
+    @Test
+    public void testContentType() throws Exception {
+        ReturnValueHttpMessageConverter converter = new ReturnValueHttpMessageConverter(null);
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(returnValue(200000.0, 6.5, 30, 126414L, 1L), null, outputMessage);
+
+        assertEquals(MediaType.APPLICATION_JSON_UTF8, outputMessage.getHeaders().getContentType());
+    }
+
+    private void assertMatchesJackson(ReturnValueHttpMessageConverter converter, ReturnValue returnValue) throws Exception {
+        assertEquals(objectMapper.writeValueAsString(returnValue), write(converter, returnValue));
+    }
+
+    private String write(ReturnValueHttpMessageConverter converter, ReturnValue returnValue) throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(returnValue, MediaType.APPLICATION_JSON_UTF8, outputMessage);
+        return outputMessage.getBodyAsString();
+    }
+
+    private ReturnValue returnValue(double amount, double rate, int years, long paymentCents, long count) {
+        return new ReturnValue.Builder()
+                .withAmount(amount)
+                .withRate(rate)
+                .withYears(years)
+                .withPaymentCents(paymentCents)
+                .withCount(count)
+                .build();
+    }
+}
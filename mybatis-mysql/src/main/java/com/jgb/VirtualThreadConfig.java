@@ -0,0 +1,91 @@
+package com.jgb;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Runs each Tomcat request on its own virtual thread instead of the fixed worker pool. Whether
+// a query frees the carrier thread depends on the JDBC driver: MySQL Connector/J 8.0 does its
+// socket I/O inside synchronized blocks, which pin the virtual thread to its carrier for the
+// whole query on Java 21 to 23. Connector/J 9.0 uses locks instead, and Java 24 no longer pins
+// in synchronized code (JEP 491). This project packages no MySQL driver - on Cloud Foundry the
+// buildpack supplies one - so check which driver and runtime are deployed before relying on
+// the carriers being freed.
+//
+// The project still compiles for Java 8, so the executor is looked up reflectively. On a
+// runtime older than Java 21 the profile logs a warning and keeps Tomcat's own worker pool.
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadCustomizer(MeterRegistry meterRegistry) {
+        return virtualThreadCustomizer(newVirtualThreadPerTaskExecutor(), meterRegistry);
+    }
+
+    // package private so tests can install a stand-in executor - null leaves Tomcat's pool alone
+    static WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadCustomizer(ExecutorService virtualThreads,
+            MeterRegistry meterRegistry) {
+        if (virtualThreads == null) {
+            logger.warn("The virtual-threads profile needs Java 21 or later - using the Tomcat worker pool");
+            return factory -> { };
+        }
+
+        AtomicInteger activeRequests = new AtomicInteger();
+
+        // compare with tomcat.threads.busy and jvm.threads.live from a run on the default profile
+        Gauge.builder("request.executor.active", activeRequests, AtomicInteger::get)
+                .description("Requests currently running on virtual threads")
+                .register(meterRegistry);
+        Gauge.builder("request.executor.carrier.threads", ManagementFactory.getThreadMXBean(), VirtualThreadConfig::countCarrierThreads)
+                .description("Platform threads carrying virtual threads")
+                .register(meterRegistry);
+
+        Executor executor = command -> virtualThreads.execute(() -> {
+            activeRequests.incrementAndGet();
+            try {
+                command.run();
+            } finally {
+                activeRequests.decrementAndGet();
+            }
+        });
+
+        return factory -> factory.addConnectorCustomizers(connector -> connector.getProtocolHandler().setExecutor(executor));
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    // the default virtual thread scheduler is a ForkJoinPool whose workers are the carrier
+    // threads. Only the names are needed, so no stack is walked (maxDepth 0)
+    private static double countCarrierThreads(ThreadMXBean threads) {
+        return Arrays.stream(threads.getThreadInfo(threads.getAllThreadIds(), 0))
+                .filter(info -> info != null)
+                .map(ThreadInfo::getThreadName)
+                .filter(name -> name.startsWith("ForkJoinPool-") && name.contains("-worker-"))
+                .count();
+    }
+}
@@ -0,0 +1,93 @@
+package com.jgb.http;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.jgb.model.User;
+
+// Reads "firstName,lastName" lines one at a time. An optional header line is skipped, fields
+// can be quoted with ", and "" inside a quoted field is a quote. Blank lines are ignored
+public class CsvUserReader implements Iterator<User> {
+    private static final String HEADER = "firstName,lastName";
+
+    private final BufferedReader reader;
+    private boolean firstLine = true;
+    private String nextLine;
+
+    public CsvUserReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (nextLine == null) {
+                String line = reader.readLine();
+                if (line == null) {
+                    return false;
+                }
+                boolean header = firstLine && line.trim().equalsIgnoreCase(HEADER);
+                firstLine = false;
+                if (!header && !line.trim().isEmpty()) {
+                    nextLine = line;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public User next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<String> fields = parseLine(nextLine);
+        nextLine = null;
+        if (fields.size() != 2) {
+            throw new IllegalArgumentException("Expected 2 fields but found " + fields.size());
+        }
+
+        User user = new User();
+        user.setFirstName(fields.get(0));
+        user.setLastName(fields.get(1));
+        return user;
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -10,8 +10,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.jgb.model.ChunkResult;
 import com.jgb.model.User;
 import com.jgb.service.BatchInsertService;
+import com.jgb.service.ParallelBatchInsertService;
 
 @RestController
 @RequestMapping("/userBatch")
@@ -19,6 +21,9 @@ public class UserBatchController {
 
     @Autowired
     private BatchInsertService userService;
+
+    @Autowired
+    private ParallelBatchInsertService parallelBatchInsertService;
     
     @PostMapping
     public ResponseEntity<String> insert(@RequestBody List<User> users) {
@@ -26,4 +31,14 @@ public class UserBatchController {
         
         return new ResponseEntity<>("OK", HttpStatus.OK);
     }
+
+    // each chunk commits or rolls back on its own, so a 500 can still mean some chunks were
+    // inserted - the results say which users to send again
+    @PostMapping(params="parallel=true")
+    public ResponseEntity<List<ChunkResult>> insertParallel(@RequestBody List<User> users) {
+        List<ChunkResult> results = parallelBatchInsertService.insertBatch(users);
+
+        boolean allCommitted = results.stream().allMatch(ChunkResult::isCommitted);
+        return new ResponseEntity<>(results, allCommitted ? HttpStatus.OK : HttpStatus.INTERNAL_SERVER_ERROR);
+    }
 }
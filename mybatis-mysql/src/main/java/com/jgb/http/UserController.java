@@ -1,33 +1,101 @@
 package com.jgb.http;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import com.jgb.model.User;
+import com.jgb.model.UserPage;
 import com.jgb.service.UserService;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 @RestController
 @RequestMapping("/user")
 public class UserController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
     
     @GetMapping
     public List<User> getAllUsers() {
         return userService.getAllUsers();
     }
+
+    // chosen over getAllUsers when limit is given. Pass the returned next as after to get the following page
+    @GetMapping(params="limit")
+    public ResponseEntity<UserPage> getUserPage(@RequestParam(name="after", defaultValue="0") int after,
+            @RequestParam("limit") int limit) {
+        if (after < 0 || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(userService.getUserPage(after, limit), HttpStatus.OK);
+    }
+
+    // writes each user as its row is read, so memory use does not grow with the table
+    @GetMapping(value="/stream", produces=MediaType.APPLICATION_JSON_VALUE)
+    public void streamAllUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            writeUsers(generator, () -> {});
+            generator.writeEndArray();
+        }
+    }
+
+    // one JSON object per line
+    @GetMapping(value="/stream", produces=APPLICATION_NDJSON_VALUE)
+    public void streamAllUsersAsNdjson(HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            writeUsers(generator, () -> generator.writeRaw('\n'));
+        }
+    }
+
+    private void writeUsers(JsonGenerator generator, IOAction afterEachUser) throws IOException {
+        try {
+            userService.forEachUser(user -> {
+                try {
+                    generator.writeObject(user);
+                    afterEachUser.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // usually the client went away
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IOAction {
+        void run() throws IOException;
+    }
     
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable("id") Integer id) {
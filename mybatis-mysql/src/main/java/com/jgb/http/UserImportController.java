@@ -0,0 +1,58 @@
+package com.jgb.http;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.jgb.model.ImportResult;
+import com.jgb.model.User;
+import com.jgb.service.UserImportService;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Streams an upload of any size into the user table. The body is parsed as it arrives and is
+// never bound to a List<User>, unlike /userBatch
+@RestController
+@RequestMapping("/userImport")
+public class UserImportController {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostMapping(consumes=UserController.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportResult> importNdjson(InputStream body) throws IOException, InterruptedException {
+        try (MappingIterator<User> users = objectMapper.readerFor(User.class).readValues(body)) {
+            return toResponse(userImportService.importUsers(users));
+        }
+    }
+
+    @PostMapping(consumes="text/csv")
+    public ResponseEntity<ImportResult> importCsv(InputStream body) throws InterruptedException {
+        CsvUserReader users = new CsvUserReader(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+        return toResponse(userImportService.importUsers(users));
+    }
+
+    private ResponseEntity<ImportResult> toResponse(ImportResult result) {
+        switch (result.getStatus()) {
+        case PARSE_FAILED:
+            return new ResponseEntity<>(result, HttpStatus.BAD_REQUEST);
+        case INSERT_FAILED:
+            return new ResponseEntity<>(result, HttpStatus.INTERNAL_SERVER_ERROR);
+        default:
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        }
+    }
+}
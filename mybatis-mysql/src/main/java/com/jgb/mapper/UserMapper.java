@@ -5,7 +5,9 @@ import java.util.List;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
 
 import com.jgb.model.User;
 
@@ -16,7 +18,30 @@ public interface UserMapper {
         "select id, first_name, last_name from user order by id"
     })
     List<User> selectAll();
+
+    // reads rows as the cursor advances instead of building a list, 1000 at a time. MySQL
+    // Connector/J ignores the fetch size unless the JDBC URL has useCursorFetch=true, and reads
+    // the whole result into memory
+    @Select({
+        "select id, first_name, last_name from user order by id"
+    })
+    @Options(fetchSize=1000)
+    Cursor<User> selectAllAsCursor();
+
+    // the same query for MySQL and MariaDB, whose drivers stream one row at a time when the fetch
+    // size is Integer.MIN_VALUE, whatever the JDBC URL. H2 rejects a negative fetch size
+    @Select({
+        "select id, first_name, last_name from user order by id"
+    })
+    @Options(fetchSize=Integer.MIN_VALUE)
+    Cursor<User> selectAllAsRowStream();
     
+    // keyset paging - the primary key index finds the first row, so a deep page costs the same as the first
+    @Select({
+        "select id, first_name, last_name from user where id > #{after} order by id limit #{limit}"
+    })
+    List<User> selectPage(@Param("after") int after, @Param("limit") int limit);
+
     @Select({
         "select id, first_name, last_name from user where id = #{value}"
     })
@@ -27,4 +52,16 @@ public interface UserMapper {
     })
     @Options(useGeneratedKeys=true, keyProperty="id")
     int insertUser(User user);
+
+    // one statement for the whole list - MySQL, H2 and MyBatis return a generated key per row
+    @Insert({
+        "<script>",
+        "insert into user (first_name, last_name) values",
+        "<foreach collection='list' item='user' separator=','>",
+        "(#{user.firstName}, #{user.lastName})",
+        "</foreach>",
+        "</script>"
+    })
+    @Options(useGeneratedKeys=true, keyProperty="id")
+    int insertUsers(List<User> users);
 }
@@ -0,0 +1,51 @@
+package com.jgb.model;
+
+// outcome of one chunk of a parallel batch - users [from, from + size) of the request, inserted
+// in their own transaction. error is null when the chunk committed
+public class ChunkResult {
+    private int chunk;
+    private int from;
+    private int size;
+    private boolean committed;
+    private String error;
+
+    public int getChunk() {
+        return chunk;
+    }
+
+    public void setChunk(int chunk) {
+        this.chunk = chunk;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public void setFrom(int from) {
+        this.from = from;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public void setCommitted(boolean committed) {
+        this.committed = committed;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
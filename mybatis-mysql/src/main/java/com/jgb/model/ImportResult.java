@@ -0,0 +1,49 @@
+package com.jgb.model;
+
+// outcome of a streaming import. Batches are inserted in upload order, so the first inserted
+// rows of the upload are in the database - resume a failed import from row inserted + 1
+public class ImportResult {
+
+    public enum Status {
+        COMPLETED,
+        PARSE_FAILED,
+        INSERT_FAILED
+    }
+
+    private Status status;
+    private long parsed;
+    private long inserted;
+    private String error;
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getParsed() {
+        return parsed;
+    }
+
+    public void setParsed(long parsed) {
+        this.parsed = parsed;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
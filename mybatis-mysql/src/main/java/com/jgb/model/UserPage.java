@@ -0,0 +1,25 @@
+package com.jgb.model;
+
+import java.util.List;
+
+// one page of users in id order. next is the after value for the following page, or null on the last page
+public class UserPage {
+    private List<User> users;
+    private Integer next;
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<User> users) {
+        this.users = users;
+    }
+
+    public Integer getNext() {
+        return next;
+    }
+
+    public void setNext(Integer next) {
+        this.next = next;
+    }
+}
@@ -6,6 +6,7 @@ import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,6 +14,7 @@ import com.jgb.mapper.UserMapper;
 import com.jgb.model.User;
 
 @Service
+@ConditionalOnProperty(name="user-batch.insert-strategy", havingValue="batch", matchIfMissing=true)
 public class MyBatisBatchInsertService implements BatchInsertService {
 
     @Autowired
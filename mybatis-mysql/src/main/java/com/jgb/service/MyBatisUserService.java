@@ -1,19 +1,33 @@
 package com.jgb.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 
+import javax.sql.DataSource;
+
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.jgb.mapper.UserMapper;
 import com.jgb.model.User;
+import com.jgb.model.UserPage;
 
 @Service
 public class MyBatisUserService implements UserService {
 
     @Autowired
     private UserMapper userMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private volatile Boolean rowStreaming;
     
     @Override
     @Transactional
@@ -21,6 +35,45 @@ public class MyBatisUserService implements UserService {
         return userMapper.selectAll();
     }
 
+    // the cursor is only open inside the transaction, so each user is handed to the consumer
+    // here rather than returned
+    @Override
+    @Transactional(readOnly=true)
+    public void forEachUser(Consumer<User> consumer) {
+        try (Cursor<User> users = isRowStreaming() ? userMapper.selectAllAsRowStream() : userMapper.selectAllAsCursor()) {
+            users.forEach(consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // whether the database is MySQL or MariaDB, checked on first use
+    private boolean isRowStreaming() {
+        if (rowStreaming == null) {
+            try {
+                String product = (String) JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName");
+                rowStreaming = product.equals("MySQL") || product.equals("MariaDB");
+            } catch (MetaDataAccessException e) {
+                throw new IllegalStateException("Cannot read the database product name", e);
+            }
+        }
+        return rowStreaming;
+    }
+
+    // reads one extra row to tell whether there is a next page
+    @Override
+    @Transactional(readOnly=true)
+    public UserPage getUserPage(int after, int limit) {
+        List<User> users = userMapper.selectPage(after, limit + 1);
+        UserPage page = new UserPage();
+        if (users.size() > limit) {
+            users = users.subList(0, limit);
+            page.setNext(users.get(limit - 1).getId());
+        }
+        page.setUsers(users);
+        return page;
+    }
+
     @Override
     @Transactional
     public void insertUser(User user) {
@@ -0,0 +1,84 @@
+package com.jgb.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.jgb.model.ChunkResult;
+import com.jgb.model.User;
+
+// Splits a batch into chunks and hands each chunk to the configured BatchInsertService on a
+// worker thread. Every chunk is its own transaction on its own pooled connection: a failed chunk
+// rolls back only its own users, and chunks that committed stay committed. At most threads chunks
+// run at once across all requests, so threads should stay below the connection pool size
+@Service
+public class ParallelBatchInsertService {
+
+    @Autowired
+    private BatchInsertService batchInsertService;
+
+    private final int chunkSize;
+    private final ExecutorService executor;
+
+    public ParallelBatchInsertService(@Value("${user-batch.parallel.chunk-size:10000}") int chunkSize,
+            @Value("${user-batch.parallel.threads:4}") int threads) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("user-batch.parallel.chunk-size must be at least 1");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("user-batch.parallel.threads must be at least 1");
+        }
+        this.chunkSize = chunkSize;
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "user-batch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // waits for every chunk and returns their results in request order
+    public List<ChunkResult> insertBatch(List<User> users) {
+        List<CompletableFuture<ChunkResult>> chunks = new ArrayList<>();
+        for (int from = 0; from < users.size(); from += chunkSize) {
+            int chunk = chunks.size();
+            int start = from;
+            List<User> chunkUsers = users.subList(from, Math.min(from + chunkSize, users.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> insertChunk(chunk, start, chunkUsers), executor));
+        }
+
+        List<ChunkResult> results = new ArrayList<>();
+        for (CompletableFuture<ChunkResult> chunk : chunks) {
+            results.add(chunk.join());
+        }
+        return results;
+    }
+
+    private ChunkResult insertChunk(int chunk, int from, List<User> users) {
+        ChunkResult result = new ChunkResult();
+        result.setChunk(chunk);
+        result.setFrom(from);
+        result.setSize(users.size());
+        try {
+            batchInsertService.insertBatch(users);
+            result.setCommitted(true);
+        } catch (RuntimeException e) {
+            result.setError(e.getMessage());
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
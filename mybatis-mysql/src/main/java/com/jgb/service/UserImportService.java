@@ -0,0 +1,123 @@
+package com.jgb.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.jgb.model.ImportResult;
+import com.jgb.model.User;
+
+// Imports users as they are parsed. The calling thread pulls users from the iterator into
+// batches of batchSize and a writer thread inserts each batch through the configured
+// BatchInsertService while the next one is parsed. At most QUEUED_BATCHES batches wait between
+// the two, so memory use depends on the batch size rather than the upload size.
+//
+// Each batch is its own transaction. If a row fails to parse, every row before it is still
+// inserted. If a batch fails to insert, the import stops and the batches before it stay committed
+@Service
+public class UserImportService {
+    private static final int QUEUED_BATCHES = 2;
+    private static final List<User> END = Collections.emptyList();
+
+    @Autowired
+    private BatchInsertService batchInsertService;
+
+    private final int batchSize;
+    private final ExecutorService executor;
+
+    public UserImportService(@Value("${user-import.batch-size:1000}") int batchSize) {
+        // with 0 no batch would ever fill, and the whole upload would be held in one
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("user-import.batch-size must be at least 1");
+        }
+        this.batchSize = batchSize;
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "user-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ImportResult importUsers(Iterator<User> users) throws InterruptedException {
+        BlockingQueue<List<User>> batches = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+        AtomicLong inserted = new AtomicLong();
+        Future<?> writer = executor.submit(() -> writeBatches(batches, inserted));
+
+        ImportResult result = new ImportResult();
+        long parsed = 0;
+        List<User> batch = new ArrayList<>(batchSize);
+        try {
+            while (users.hasNext()) {
+                batch.add(users.next());
+                parsed++;
+                if (batch.size() == batchSize) {
+                    if (!send(batches, batch, writer)) {
+                        break;
+                    }
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (RuntimeException e) {
+            result.setStatus(ImportResult.Status.PARSE_FAILED);
+            result.setError("Row " + (parsed + 1) + ": " + e.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            send(batches, batch, writer);
+        }
+        send(batches, END, writer);
+
+        try {
+            writer.get();
+        } catch (ExecutionException e) {
+            result.setStatus(ImportResult.Status.INSERT_FAILED);
+            result.setError(e.getCause().getMessage());
+        }
+        if (result.getStatus() == null) {
+            result.setStatus(ImportResult.Status.COMPLETED);
+        }
+        result.setParsed(parsed);
+        result.setInserted(inserted.get());
+        return result;
+    }
+
+    // false when the writer has stopped, so nothing will take the batch
+    private boolean send(BlockingQueue<List<User>> batches, List<User> batch, Future<?> writer) throws InterruptedException {
+        while (!batches.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Void writeBatches(BlockingQueue<List<User>> batches, AtomicLong inserted) throws InterruptedException {
+        List<User> batch;
+        while ((batch = batches.take()) != END) {
+            batchInsertService.insertBatch(batch);
+            inserted.addAndGet(batch.size());
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,12 +1,16 @@
 package com.jgb.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.jgb.model.User;
+import com.jgb.model.UserPage;
 
 public interface UserService {
 
     List<User> getAllUsers();
+    void forEachUser(Consumer<User> consumer);
+    UserPage getUserPage(int after, int limit);
     User getUser(Integer id);
     void insertUser(User user);
 }
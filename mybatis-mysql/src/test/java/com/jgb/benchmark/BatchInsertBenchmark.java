@@ -0,0 +1,83 @@
+package com.jgb.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.jgb.MyBatisDemoApplication;
+import com.jgb.model.User;
+import com.jgb.service.BatchInsertService;
+
+// Time to insert a whole batch through each BatchInsertService, against the in-memory H2
+// database. Each strategy runs in its own fork with its own application context, and the table
+// is emptied before every insert so each one starts from the same state
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchInsertBenchmark {
+
+    @Param({"batch", "multi-row"})
+    private String strategy;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private BatchInsertService batchInsertService;
+    private JdbcTemplate jdbcTemplate;
+    private List<User> users;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(MyBatisDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("user-batch.insert-strategy=" + strategy)
+                .run();
+        batchInsertService = context.getBean(BatchInsertService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void newBatch() {
+        jdbcTemplate.execute("truncate table user");
+        users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            User user = new User();
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            users.add(user);
+        }
+    }
+
+    @Benchmark
+    public List<User> insertBatch() {
+        batchInsertService.insertBatch(users);
+        return users;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+}
@@ -0,0 +1,65 @@
+package com.jgb.http;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment=WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+public class UserBatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @After
+    public void cleanup() {
+        jdbcTemplate.update("delete from user where last_name = 'Batch'");
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        mockMvc.perform(post("/userBatch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"firstName\":\"A\",\"lastName\":\"Batch\"},{\"firstName\":\"B\",\"lastName\":\"Batch\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("OK"));
+    }
+
+    @Test
+    public void testParallelBatch() throws Exception {
+        mockMvc.perform(post("/userBatch").param("parallel", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"firstName\":\"A\",\"lastName\":\"Batch\"},{\"firstName\":\"B\",\"lastName\":\"Batch\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].size").value(2))
+                .andExpect(jsonPath("$[0].committed").value(true));
+    }
+
+    @Test
+    public void testParallelBatchFailure() throws Exception {
+        mockMvc.perform(post("/userBatch").param("parallel", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"firstName\":\"A\",\"lastName\":\"Batch\"},{\"lastName\":\"Batch\"}]"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$[0].committed").value(false))
+                .andExpect(jsonPath("$[0].error").isNotEmpty());
+    }
+}
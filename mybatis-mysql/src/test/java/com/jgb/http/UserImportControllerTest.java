@@ -0,0 +1,149 @@
+package com.jgb.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment=WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+public class UserImportControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @After
+    public void cleanup() {
+        jdbcTemplate.update("delete from user where last_name like 'Import%'");
+    }
+
+    @Test
+    public void testNdjson() throws Exception {
+        mockMvc.perform(post("/userImport")
+                .contentType(UserController.APPLICATION_NDJSON_VALUE)
+                .content(ndjson(2500)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.parsed").value(2500))
+                .andExpect(jsonPath("$.inserted").value(2500));
+
+        assertEquals(Integer.valueOf(2500), countImported());
+    }
+
+    @Test
+    public void testCsv() throws Exception {
+        String csv = "firstName,lastName\n"
+                + "Fred,Import\n"
+                + "\n"
+                + "\"Smith, Jr.\",\"Import \"\"CSV\"\"\"\n";
+
+        mockMvc.perform(post("/userImport").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(2));
+
+        List<String> firstNames = jdbcTemplate.queryForList(
+                "select first_name from user where last_name like 'Import%' order by id", String.class);
+        assertEquals("Fred", firstNames.get(0));
+        assertEquals("Smith, Jr.", firstNames.get(1));
+        assertEquals(Integer.valueOf(1), jdbcTemplate.queryForObject(
+                "select count(*) from user where last_name = 'Import \"CSV\"'", Integer.class));
+    }
+
+    @Test
+    public void testRowsBeforeParseErrorAreInserted() throws Exception {
+        String body = ndjson(1500) + "{\"firstName\": oops}\n" + ndjson(10);
+
+        mockMvc.perform(post("/userImport").contentType(UserController.APPLICATION_NDJSON_VALUE).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value("PARSE_FAILED"))
+                .andExpect(jsonPath("$.parsed").value(1500))
+                .andExpect(jsonPath("$.inserted").value(1500));
+
+        assertEquals(Integer.valueOf(1500), countImported());
+    }
+
+    @Test
+    public void testCsvFieldCountError() throws Exception {
+        mockMvc.perform(post("/userImport").contentType("text/csv").content("Fred,Import\nBarney\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Row 2: Expected 2 fields but found 1"))
+                .andExpect(jsonPath("$.inserted").value(1));
+    }
+
+    @Test
+    public void testInsertFailureKeepsEarlierBatches() throws Exception {
+        // first_name is not null, so the second batch of 1000 fails
+        String body = ndjson(1500) + "{\"lastName\":\"Import\"}\n" + ndjson(1500);
+
+        mockMvc.perform(post("/userImport").contentType(UserController.APPLICATION_NDJSON_VALUE).content(body))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.status").value("INSERT_FAILED"))
+                .andExpect(jsonPath("$.inserted").value(1000));
+
+        assertEquals(Integer.valueOf(1000), countImported());
+    }
+
+    @Test
+    public void testChunkedUpload() throws IOException {
+        // sent as it is generated, never held in memory on either side
+        int rows = 200000;
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/userImport").openConnection();
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(64 * 1024);
+        connection.setRequestProperty("Content-Type", UserController.APPLICATION_NDJSON_VALUE);
+        try (OutputStream out = connection.getOutputStream()) {
+            for (int i = 0; i < rows; i++) {
+                out.write(("{\"firstName\":\"First" + i + "\",\"lastName\":\"Import\"}\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        assertEquals(200, connection.getResponseCode());
+        JsonNode result = objectMapper.readTree(connection.getInputStream());
+        assertEquals(rows, result.get("inserted").asInt());
+        assertEquals(Integer.valueOf(rows), countImported());
+    }
+
+    private Integer countImported() {
+        return jdbcTemplate.queryForObject("select count(*) from user where last_name like 'Import%'", Integer.class);
+    }
+
+    private static String ndjson(int rows) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            body.append("{\"firstName\":\"First").append(i).append("\",\"lastName\":\"Import\"}\n");
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.jgb.http;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RunWith(SpringRunner.class)
+// same context as UserStreamTest, so both share the one in-memory database
+@SpringBootTest(webEnvironment=WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+public class UserPageTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testPagesCoverEveryUserOnce() throws Exception {
+        List<Integer> expected = jdbcTemplate.queryForList("select id from user order by id", Integer.class);
+        List<Integer> paged = new ArrayList<>();
+
+        String after = "0";
+        while (after != null) {
+            String body = mockMvc.perform(get("/user").param("after", after).param("limit", "3"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            for (JsonNode user : page.get("users")) {
+                paged.add(user.get("id").asInt());
+            }
+            after = page.get("next").isNull() ? null : page.get("next").asText();
+        }
+
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    public void testLastPageHasNoNext() throws Exception {
+        Integer maxId = jdbcTemplate.queryForObject("select max(id) from user", Integer.class);
+
+        mockMvc.perform(get("/user").param("after", String.valueOf(maxId - 1)).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].id").value(maxId))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    public void testFullPageBeforeEndHasNext() throws Exception {
+        List<Integer> ids = jdbcTemplate.queryForList("select id from user order by id limit 2", Integer.class);
+
+        mockMvc.perform(get("/user").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andExpect(jsonPath("$.next").value(ids.get(0)));
+    }
+
+    @Test
+    public void testWithoutLimitReturnsTheFullList() throws Exception {
+        mockMvc.perform(get("/user"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    public void testInvalidLimit() throws Exception {
+        mockMvc.perform(get("/user").param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/user").param("limit", "1001")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/user").param("limit", "10").param("after", "-1")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testPageSeeksOnThePrimaryKey() {
+        String plan = jdbcTemplate.queryForObject(
+                "explain select id, first_name, last_name from user where id > 1000000 order by id limit 10", String.class);
+
+        assertThat(plan, containsString("PRIMARY_KEY"));
+        assertThat(plan, containsString("ID > 1000000"));
+    }
+}
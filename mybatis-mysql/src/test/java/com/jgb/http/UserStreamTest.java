@@ -0,0 +1,185 @@
+package com.jgb.http;
+
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+// The interceptor changes the context, so this test gets its own database rather than re-running
+// the schema script against the one the other tests share
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment=WebEnvironment.RANDOM_PORT,
+        properties="spring.datasource.url=jdbc:h2:mem:stream;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LAZY_QUERY_EXECUTION=1")
+@AutoConfigureMockMvc
+public class UserStreamTest {
+    private static final int ROWS = 500000;
+
+    // rows read from the cursor's ResultSet so far
+    private static final AtomicLong rowsRead = new AtomicLong();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int seededRows;
+
+    @TestConfiguration
+    static class RowCountingConfiguration {
+        @Bean
+        public Interceptor rowCountingInterceptor() {
+            return new RowCountingInterceptor();
+        }
+    }
+
+    @Before
+    public void setup() {
+        seededRows = jdbcTemplate.queryForObject("select count(*) from user", Integer.class);
+        jdbcTemplate.update("insert into user(first_name, last_name) select 'First' || x, 'Last' || x from system_range(1, ?)", ROWS);
+        rowsRead.set(0);
+    }
+
+    @After
+    public void cleanup() {
+        jdbcTemplate.update("delete from user where first_name like 'First%'");
+    }
+
+    // The client reads one line and stops. A streaming server then fills the socket buffers and
+    // blocks, having read only part of the result - one that builds the response first reads it all
+    @Test
+    public void testNdjsonIsWrittenAsRowsAreRead() throws Exception {
+        HttpURLConnection connection = open("application/x-ndjson");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            assertTrue(reader.readLine().startsWith("{"));
+            assertThat(rowsReadOnceStalled(), lessThan(ROWS / 2L));
+
+            int lines = 1;
+            String lastLine = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lastLine = line;
+                lines++;
+            }
+            assertEquals("application/x-ndjson", connection.getContentType());
+            assertEquals(seededRows + ROWS, lines);
+            assertTrue(lastLine, lastLine.contains("\"lastName\":\"Last" + ROWS + "\""));
+        }
+    }
+
+    @Test
+    public void testJsonArrayIsWrittenAsRowsAreRead() throws Exception {
+        HttpURLConnection connection = open("application/json");
+        try (InputStream in = connection.getInputStream()) {
+            assertEquals('[', in.read());
+            assertThat(rowsReadOnceStalled(), lessThan(ROWS / 2L));
+
+            long bytes = 1;
+            byte[] buffer = new byte[8192];
+            byte last = 0;
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                last = buffer[read - 1];
+                bytes += read;
+            }
+            assertTrue(connection.getContentType().startsWith("application/json"));
+            assertEquals(']', last);
+            assertTrue(bytes > ROWS * 40L);
+        }
+    }
+
+    private HttpURLConnection open(String accept) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/user/stream").openConnection();
+        connection.setRequestProperty("Accept", accept);
+        return connection;
+    }
+
+    // waits until the server stops reading rows because nothing more fits in the socket buffers
+    private static long rowsReadOnceStalled() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        long last = -1;
+        long current = rowsRead.get();
+        while (current != last && System.nanoTime() < deadline) {
+            last = current;
+            Thread.sleep(250);
+            current = rowsRead.get();
+        }
+        return current;
+    }
+
+    // wraps the statement of every cursor query so that ResultSet.next() calls are counted
+    @Intercepts(@Signature(type=StatementHandler.class, method="queryCursor", args=Statement.class))
+    static class RowCountingInterceptor implements Interceptor {
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            PreparedStatement statement = (PreparedStatement) invocation.getArgs()[0];
+            invocation.getArgs()[0] = countingProxy(PreparedStatement.class, statement);
+            return invocation.proceed();
+        }
+
+        @Override
+        public Object plugin(Object target) {
+            return Plugin.wrap(target, this);
+        }
+
+        @Override
+        public void setProperties(Properties properties) {
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T countingProxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof ResultSet && type == PreparedStatement.class) {
+                    return countingProxy(ResultSet.class, (ResultSet) result);
+                }
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                    rowsRead.incrementAndGet();
+                }
+                return result;
+            });
+        }
+    }
+}
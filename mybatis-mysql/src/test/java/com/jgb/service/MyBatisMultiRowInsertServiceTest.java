@@ -0,0 +1,81 @@
+package com.jgb.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.jgb.model.User;
+
+// its own in-memory database, since this context differs from the other tests'
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties={
+        "user-batch.insert-strategy=multi-row",
+        "user-batch.chunk-size=3",
+        "spring.datasource.url=jdbc:h2:mem:multirow;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"})
+public class MyBatisMultiRowInsertServiceTest {
+
+    @Autowired
+    private BatchInsertService batchInsertService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testMultiRowStrategySelected() {
+        assertEquals(MyBatisMultiRowInsertService.class, AopUtils.getTargetClass(batchInsertService));
+    }
+
+    @Test
+    public void testGeneratedIdsAcrossChunks() {
+        // 10 users in chunks of 3 - the last chunk is short
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            User user = new User();
+            user.setFirstName("Multi" + i);
+            user.setLastName("Row");
+            users.add(user);
+        }
+
+        batchInsertService.insertBatch(users);
+
+        for (User user : users) {
+            assertNotNull(user.getFirstName(), user.getId());
+            Map<String, Object> row = jdbcTemplate.queryForMap("select first_name, last_name from user where id = ?", user.getId());
+            assertEquals(user.getFirstName(), row.get("FIRST_NAME"));
+            assertEquals("Row", row.get("LAST_NAME"));
+        }
+        assertEquals(Integer.valueOf(10), jdbcTemplate.queryForObject("select count(*) from user where last_name = 'Row'", Integer.class));
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        batchInsertService.insertBatch(new ArrayList<>());
+    }
+
+    @Test
+    public void testLargestChunkSizeAccepted() {
+        new MyBatisMultiRowInsertService(MyBatisMultiRowInsertService.MAX_CHUNK_SIZE);
+    }
+
+    // a chunk size of 0 would never advance through the batch
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroChunkSize() {
+        new MyBatisMultiRowInsertService(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testChunkSizeOverMax() {
+        new MyBatisMultiRowInsertService(MyBatisMultiRowInsertService.MAX_CHUNK_SIZE + 1);
+    }
+}
@@ -0,0 +1,108 @@
+package com.jgb.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.jgb.model.ChunkResult;
+import com.jgb.model.User;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment=WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+public class ParallelBatchInsertServiceTest {
+
+    @Autowired
+    private ParallelBatchInsertService parallelBatchInsertService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @After
+    public void cleanup() {
+        jdbcTemplate.update("delete from user where last_name = 'Parallel'");
+    }
+
+    @Test
+    public void testChunksInRequestOrder() {
+        // 25,000 users in the default chunks of 10,000
+        List<User> users = users(25000);
+
+        List<ChunkResult> results = parallelBatchInsertService.insertBatch(users);
+
+        assertEquals(3, results.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, results.get(i).getChunk());
+            assertEquals(i * 10000, results.get(i).getFrom());
+            assertTrue(results.get(i).isCommitted());
+            assertNull(results.get(i).getError());
+        }
+        assertEquals(5000, results.get(2).getSize());
+
+        Set<Integer> ids = new HashSet<>();
+        for (User user : users) {
+            assertNotNull(user.getId());
+            ids.add(user.getId());
+        }
+        assertEquals(25000, ids.size());
+        assertEquals(Integer.valueOf(25000), countInserted());
+    }
+
+    @Test
+    public void testFailedChunkRollsBackAlone() {
+        List<User> users = users(25000);
+        // first_name is not null, so the second chunk fails
+        users.get(12345).setFirstName(null);
+
+        List<ChunkResult> results = parallelBatchInsertService.insertBatch(users);
+
+        assertTrue(results.get(0).isCommitted());
+        assertFalse(results.get(1).isCommitted());
+        assertNotNull(results.get(1).getError());
+        assertTrue(results.get(2).isCommitted());
+        assertEquals(Integer.valueOf(15000), countInserted());
+    }
+
+    // a chunk size of 0 would never advance through the batch
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroChunkSize() {
+        new ParallelBatchInsertService(0, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroThreads() {
+        new ParallelBatchInsertService(10000, 0);
+    }
+
+    private Integer countInserted() {
+        return jdbcTemplate.queryForObject("select count(*) from user where last_name = 'Parallel'", Integer.class);
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setFirstName("First" + i);
+            user.setLastName("Parallel");
+            users.add(user);
+        }
+        return users;
+    }
+}
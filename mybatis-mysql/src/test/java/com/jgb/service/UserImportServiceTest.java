@@ -0,0 +1,21 @@
+package com.jgb.service;
+
+import org.junit.Test;
+
+public class UserImportServiceTest {
+
+    @Test
+    public void testSmallestBatchSizeAccepted() {
+        new UserImportService(1).shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroBatchSize() {
+        new UserImportService(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeBatchSize() {
+        new UserImportService(-1);
+    }
+}